@@ -23,6 +23,9 @@
 
 package com.mmnaseri.couteau.basics.api;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
  * This interface will encapsulate that which is the expected behaviour of a normal cache.
  *
@@ -56,6 +59,21 @@ public interface Cache<K, V> {
      */
     V read(K key);
 
+    /**
+     * Reads all the specified items from the cache at once. Items that have not been cached are
+     * left out of the result.
+     * @param keys    the keys to the items
+     * @return the cached values, by their keys
+     */
+    Map<K, V> readAll(Collection<K> keys);
+
+    /**
+     * Stores all the given items in the cache, overriding any other items with the same keys.
+     * @param items    the items, by their keys
+     * @return {@code true} means that all items have been successfully written to the cache
+     */
+    boolean writeAll(Map<K, V> items);
+
     /**
      * Removes the item with the given key from the cache
      * @param key    the key
@@ -79,4 +97,11 @@ public interface Cache<K, V> {
      */
     void invalidate();
 
+    /**
+     * Returns a snapshot of the statistics recorded for the cache. Caches only record statistics
+     * once they have been asked to; until then, this returns {@link CacheStats#EMPTY}.
+     * @return the statistics
+     */
+    CacheStats getStats();
+
 }
@@ -0,0 +1,49 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api;
+
+/**
+ * A serializer turns values into bytes and back, so that they can be stored outside of the heap, or
+ * outside of the process altogether.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 6:20 PM)
+ */
+public interface Serializer<V> {
+
+    /**
+     * Will turn the value into bytes
+     * @param value    the value
+     * @return the serialized form of the value
+     */
+    byte[] serialize(V value);
+
+    /**
+     * Will recreate the value from its serialized form
+     * @param data    the bytes, as produced by {@link #serialize(Object)}
+     * @return the value
+     */
+    V deserialize(byte[] data);
+
+}
@@ -24,11 +24,16 @@
 package com.mmnaseri.couteau.basics.api.impl;
 
 import com.mmnaseri.couteau.basics.api.Cache;
+import com.mmnaseri.couteau.basics.api.CacheStats;
 import com.mmnaseri.couteau.basics.api.Filter;
+import com.mmnaseri.couteau.basics.api.Weigher;
 
-import java.util.Date;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
 
@@ -36,6 +41,15 @@ import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
  * This implementation allows for the cache to follow the contract as specified in
  * {@link Cache}. It additionally accepts a capacity and a remove policy.
  *
+ * Items can also be made to expire a given time after they were written or last accessed. Expired
+ * items are never returned, and are cleaned up lazily when they are looked up, as well as through
+ * a timing wheel which is advanced with each write (see {@link #cleanUp()}).
+ *
+ * Besides the capacity, which limits the number of items, the cache can be bounded by the total
+ * weight of its items, as determined by a {@link Weigher} (see {@link #setMaximumWeight(long, Weigher)}).
+ *
+ * Statistics are only gathered once {@link #setRecordStats(boolean)} has been called.
+ *
  * @see AbstractCache
  * @see RemovePolicy
  * @author Milad Naseri (mmnaseri@programmer.net)
@@ -44,6 +58,7 @@ import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
 public abstract class AbstractCache<K, V> implements Cache<K, V> {
 
     private static final int DEFAULT_ACCESS_RATE = 0;
+    private static final int TICKS_PER_EXPIRATION = 16;
 
     /**
      * The remove policy is a definition for how the cache should decide which items to lose
@@ -53,11 +68,41 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
         /**
          * This policy means that the items that have been accessed the least will have to go.
          */
-        LEAST_USED_FIRST,
+        LEAST_USED_FIRST {
+            @Override
+            <V> EvictionQueue<V> newQueue(int capacity) {
+                return new FrequencyEvictionQueue<V>();
+            }
+        },
+        /**
+         * This policy tells the cache to remove the oldest items first, i.e. those that
+         * have not been written or read for the longest time.
+         */
+        OLDEST_FIRST {
+            @Override
+            <V> EvictionQueue<V> newQueue(int capacity) {
+                return new AccessOrderEvictionQueue<V>();
+            }
+        },
+        /**
+         * This policy keeps newly added items in a small window, and only lets them into the rest of
+         * the cache if they have been used more often -- according to a frequency sketch which ages
+         * over time -- than the item they would be replacing. This keeps one-off items, such as those
+         * seen during scans, from flushing out the items that are used the most.
+         */
+        WINDOW_TINY_LFU {
+            @Override
+            <V> EvictionQueue<V> newQueue(int capacity) {
+                return new WindowTinyLfuEvictionQueue<V>(capacity);
+            }
+        };
+
         /**
-         * This policy tells the cache to remove the oldest items first.
+         * @param capacity    the capacity of the cache
+         * @return a new eviction queue which will keep cached data ordered according to this policy
          */
-        OLDEST_FIRST
+        abstract <V> EvictionQueue<V> newQueue(int capacity);
+
     }
 
     /**
@@ -67,27 +112,100 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      */
     protected static class CacheData<V> implements Comparable<CacheData<V>> {
 
-        private V value;
-        private long accessTime = 0;
+        private final Object key;
+        private final V value;
         private long accessRate;
+        private long writeTime;
+        private long accessTime;
+        private long deadline;
+        private long weight;
+        CacheData<V> previous;
+        CacheData<V> next;
+        CacheData<V> wheelPrevious;
+        CacheData<V> wheelNext;
+        FrequencyEvictionQueue.Bucket<V> bucket;
+        int region;
 
-        private CacheData(V value) {
+        CacheData(Object key, V value) {
+            this.key = key;
             this.value = value;
             this.accessRate = DEFAULT_ACCESS_RATE;
         }
 
         private V getValue() {
             accessRate ++;
-            accessTime = new Date().getTime();
             return value;
         }
 
-        private long getAccessRate() {
+        Object getKey() {
+            return key;
+        }
+
+        long getAccessRate() {
             return accessRate;
         }
 
-        private long getAccessTime() {
-            return accessTime;
+        /**
+         * @return the time at which this item is due to expire
+         */
+        long getDeadline() {
+            return deadline;
+        }
+
+        /**
+         * @return {@code true} if this item is currently linked into an eviction queue
+         */
+        boolean isLinked() {
+            return next != null;
+        }
+
+        /**
+         * Links this item into a circular list, right before the given item
+         * @param successor    the item which will come after this item
+         */
+        void linkBefore(CacheData<V> successor) {
+            next = successor;
+            previous = successor.previous;
+            previous.next = this;
+            successor.previous = this;
+        }
+
+        /**
+         * Takes this item out of the circular list it is currently linked into
+         */
+        void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = null;
+            next = null;
+        }
+
+        /**
+         * @return {@code true} if this item is currently linked into an expiration wheel
+         */
+        boolean isInWheel() {
+            return wheelNext != null;
+        }
+
+        /**
+         * Links this item into a circular list of the expiration wheel, right before the given item
+         * @param successor    the item which will come after this item
+         */
+        void linkBeforeInWheel(CacheData<V> successor) {
+            wheelNext = successor;
+            wheelPrevious = successor.wheelPrevious;
+            wheelPrevious.wheelNext = this;
+            successor.wheelPrevious = this;
+        }
+
+        /**
+         * Takes this item out of the expiration wheel
+         */
+        void unlinkFromWheel() {
+            wheelPrevious.wheelNext = wheelNext;
+            wheelNext.wheelPrevious = wheelPrevious;
+            wheelPrevious = null;
+            wheelNext = null;
         }
 
         @Override
@@ -99,6 +217,16 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
 
     private final int capacity;
     private final RemovePolicy removePolicy;
+    private final EvictionQueue<V> evictionQueue;
+    private final Object lock = new Object();
+    private long expireAfterWrite;
+    private long expireAfterAccess;
+    private volatile ExpirationWheel<V> expirationWheel;
+    private Weigher<? super K, ? super V> weigher;
+    private long maximumWeight = Long.MAX_VALUE;
+    private long weight;
+    private AtomicLong sharedWeight;
+    private volatile StatsCounter statsCounter;
 
     /**
      * This method will return the transform that will be used as the storage unit
@@ -132,6 +260,7 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
     public AbstractCache(int capacity, RemovePolicy removePolicy) {
         this.capacity = capacity;
         this.removePolicy = removePolicy;
+        this.evictionQueue = removePolicy.newQueue(capacity);
     }
 
     /**
@@ -141,26 +270,44 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      */
     @Override
     public boolean contains(K key) {
-        return getStore().containsKey(key);
+        if (expirationWheel == null) {
+            return getStore().containsKey(key);
+        }
+        final CacheData<V> data = getStore().get(key);
+        if (data == null) {
+            return false;
+        }
+        final long now = currentTime();
+        synchronized (lock) {
+            return !isExpired(data, now);
+        }
     }
 
     /**
-     * Will look for the first candidate to remove, based on the remove policy specified
-     * for the cache.
-     * @return the remove candidate item or {@code null} if non can be found.
+     * Removes the first candidate picked by the remove policy. The candidate is answered by the eviction
+     * queue in constant time. Candidates that are no longer in the store are only dropped from the queue,
+     * and are not counted as evictions. Must be called while holding the lock.
+     * @return {@code true} if an item was removed
      */
-    private K getRemoveCandidate() {
-        K key = null;
-        long min = Integer.MAX_VALUE;
-        for (Map.Entry<K, CacheData<V>> entry : getStore().entrySet()) {
-            final CacheData<V> cacheData = entry.getValue();
-            long value = removePolicy.equals(RemovePolicy.LEAST_USED_FIRST) ? cacheData.getAccessRate() : cacheData.getAccessTime();
-            if (value < min) {
-                min = value;
-                key = entry.getKey();
+    private boolean evict() {
+        CacheData<V> candidate;
+        while ((candidate = evictionQueue.candidate()) != null) {
+            //noinspection unchecked
+            final K key = (K) candidate.getKey();
+            if (getStore().get(key) == candidate) {
+                remove(key);
+                final StatsCounter statsCounter = this.statsCounter;
+                if (statsCounter != null) {
+                    statsCounter.recordEviction();
+                }
+                return true;
+            }
+            evictionQueue.remove(candidate);
+            if (expirationWheel != null) {
+                expirationWheel.remove(candidate);
             }
         }
-        return key;
+        return false;
     }
 
     /**
@@ -173,15 +320,32 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      */
     @Override
     public boolean write(K key, V value) {
-        if (contains(key)) {
-            remove(key);
-        }
-        while (getStore().size() > getCapacity()) {
-            if (!remove(getRemoveCandidate())) {
+        synchronized (lock) {
+            final long now = expirationWheel == null ? 0 : currentTime();
+            expire(now);
+            if (getStore().containsKey(key)) {
+                remove(key);
+            }
+            final long weight = weigh(key, value);
+            if (weight > maximumWeight) {
                 return false;
             }
+            while (getStore().size() > getCapacity() || weight > maximumWeight - this.weight) {
+                if (!evict()) {
+                    return false;
+                }
+            }
+            final CacheData<V> data = new CacheData<V>(key, value);
+            data.weight = weight;
+            addWeight(weight);
+            getStore().put(key, data);
+            evictionQueue.add(data);
+            if (expirationWheel != null) {
+                data.writeTime = now;
+                data.accessTime = now;
+                schedule(data);
+            }
         }
-        getStore().put(key, new CacheData<V>(value));
         return contains(key);
     }
 
@@ -193,10 +357,73 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      */
     @Override
     public V read(K key) {
-        if (!contains(key)) {
+        final StatsCounter statsCounter = this.statsCounter;
+        final CacheData<V> data = getStore().get(key);
+        if (data == null) {
+            if (statsCounter != null) {
+                statsCounter.recordMiss();
+            }
             return null;
         }
-        return getStore().get(key).getValue();
+        final long now = expirationWheel == null ? 0 : currentTime();
+        synchronized (lock) {
+            if (expirationWheel != null) {
+                if (isExpired(data, now)) {
+                    discard(data);
+                    if (statsCounter != null) {
+                        statsCounter.recordEviction();
+                        statsCounter.recordMiss();
+                    }
+                    return null;
+                }
+                if (expireAfterAccess > 0) {
+                    data.accessTime = now;
+                    schedule(data);
+                }
+            }
+            evictionQueue.access(data);
+            if (statsCounter != null) {
+                statsCounter.recordHit();
+            }
+            return data.getValue();
+        }
+    }
+
+    /**
+     * Reads all the specified items from the cache while holding on to the lock guarding the
+     * bookkeeping of the cache, so that it is acquired only once.
+     * @param keys    the keys to the items
+     * @return the cached values, by their keys
+     */
+    @Override
+    public Map<K, V> readAll(Collection<K> keys) {
+        final Map<K, V> items = new HashMap<K, V>();
+        synchronized (lock) {
+            for (K key : keys) {
+                final V value = read(key);
+                if (value != null) {
+                    items.put(key, value);
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Stores all the given items in the cache while holding on to the lock guarding the
+     * bookkeeping of the cache, so that it is acquired only once.
+     * @param items    the items, by their keys
+     * @return {@code true} means that all items have been successfully written to the cache
+     */
+    @Override
+    public boolean writeAll(Map<K, V> items) {
+        boolean written = true;
+        synchronized (lock) {
+            for (Map.Entry<K, V> item : items.entrySet()) {
+                written &= write(item.getKey(), item.getValue());
+            }
+        }
+        return written;
     }
 
     /**
@@ -211,7 +438,18 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
         if (key == null) {
             return false;
         }
-        getStore().remove(key);
+        //the item is taken out of the store together with its bookkeeping, so that a writer holding the
+        //lock never finds it in the eviction queue after it has left the store
+        synchronized (lock) {
+            final CacheData<V> data = getStore().remove(key);
+            if (data != null) {
+                addWeight(-data.weight);
+                evictionQueue.remove(data);
+                if (expirationWheel != null) {
+                    expirationWheel.remove(data);
+                }
+            }
+        }
         return !contains(key);
     }
 
@@ -231,7 +469,276 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
      */
     @Override
     public void invalidate() {
-        getStore().clear();
+        synchronized (lock) {
+            getStore().clear();
+            evictionQueue.clear();
+            addWeight(-weight);
+            if (expirationWheel != null) {
+                expirationWheel.clear();
+            }
+        }
+    }
+
+    /**
+     * Removes all items that have expired. This happens on its own with every write, so this only needs
+     * to be called for caches that are mostly read from, so that expired items do not linger.
+     */
+    public void cleanUp() {
+        if (expirationWheel == null) {
+            return;
+        }
+        final long now = currentTime();
+        synchronized (lock) {
+            expire(now);
+        }
+    }
+
+    /**
+     * @return a snapshot of the statistics recorded since recording was turned on
+     */
+    @Override
+    public CacheStats getStats() {
+        final StatsCounter statsCounter = this.statsCounter;
+        return statsCounter == null ? CacheStats.EMPTY : statsCounter.snapshot();
+    }
+
+    /**
+     * Turns recording of statistics on or off. Turning recording off discards what has been
+     * recorded so far.
+     * @param recordStats    whether or not statistics should be recorded
+     */
+    public void setRecordStats(boolean recordStats) {
+        setStatsCounter(recordStats ? new StatsCounter() : null);
+    }
+
+    /**
+     * @return {@code true} if the cache is recording statistics
+     */
+    public boolean isRecordingStats() {
+        return statsCounter != null;
+    }
+
+    /**
+     * Sets the counter through which statistics are recorded, so that it can be shared among several caches
+     * @param statsCounter    the counter, or {@code null} to turn off recording
+     */
+    void setStatsCounter(StatsCounter statsCounter) {
+        this.statsCounter = statsCounter;
+    }
+
+    /**
+     * Bounds the cache by the total weight of its items. Once a write would take the cache over this
+     * weight, items are removed according to the remove policy until the new item fits. Items that
+     * weigh more than the maximum weight on their own are not cached at all.
+     * @param maximumWeight    the maximum total weight of the items in the cache
+     * @param weigher          the weigher determining the weight of each item
+     */
+    public void setMaximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        synchronized (lock) {
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            long weight = 0;
+            for (Map.Entry<K, CacheData<V>> entry : getStore().entrySet()) {
+                entry.getValue().weight = weigh(entry.getKey(), entry.getValue().value);
+                weight += entry.getValue().weight;
+            }
+            addWeight(weight - this.weight);
+            while (this.weight > maximumWeight) {
+                if (!evict()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the maximum total weight of the items in the cache
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * @return the total weight of the items currently in the cache. This is always zero if no
+     * weigher has been set.
+     */
+    public long getWeight() {
+        synchronized (lock) {
+            return weight;
+        }
+    }
+
+    /**
+     * Makes the cache add any change in the weight of its items to the given counter as well, so that
+     * several caches can keep track of their combined weight
+     * @param sharedWeight    the counter, or {@code null} to stop sharing the weight
+     */
+    void shareWeight(AtomicLong sharedWeight) {
+        synchronized (lock) {
+            if (this.sharedWeight != null) {
+                this.sharedWeight.addAndGet(-weight);
+            }
+            this.sharedWeight = sharedWeight;
+            if (sharedWeight != null) {
+                sharedWeight.addAndGet(weight);
+            }
+        }
+    }
+
+    /**
+     * Removes the first candidate picked by the remove policy, recording it as an eviction
+     * @return {@code true} if an item was removed
+     */
+    boolean evictOne() {
+        synchronized (lock) {
+            return evict();
+        }
+    }
+
+    private void addWeight(long delta) {
+        weight += delta;
+        if (sharedWeight != null && delta != 0) {
+            sharedWeight.addAndGet(delta);
+        }
+    }
+
+    private long weigh(K key, V value) {
+        if (weigher == null) {
+            return 0;
+        }
+        final long weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight of an item cannot be negative: " + key);
+        }
+        return weight;
+    }
+
+    /**
+     * Sets the time after which items expire once they are written to the cache. Items expire regardless
+     * of whether they are read in the meantime. A non-positive duration means items do not expire after
+     * write.
+     * @param duration    the duration
+     * @param unit        the unit of the duration
+     */
+    public void setExpireAfterWrite(long duration, TimeUnit unit) {
+        synchronized (lock) {
+            expireAfterWrite = Math.max(0, unit.toNanos(duration));
+            resetExpirationWheel();
+        }
+    }
+
+    /**
+     * Sets the time after which items expire once they are last written or read. A non-positive duration
+     * means items do not expire for being idle.
+     * @param duration    the duration
+     * @param unit        the unit of the duration
+     */
+    public void setExpireAfterAccess(long duration, TimeUnit unit) {
+        synchronized (lock) {
+            expireAfterAccess = Math.max(0, unit.toNanos(duration));
+            resetExpirationWheel();
+        }
+    }
+
+    /**
+     * @return the time in nanoseconds after which items expire following a write, or {@code 0} if they
+     * do not
+     */
+    public long getExpireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    /**
+     * @return the time in nanoseconds after which idle items expire, or {@code 0} if they do not
+     */
+    public long getExpireAfterAccess() {
+        return expireAfterAccess;
+    }
+
+    /**
+     * This is the time source used for expiring items. It is only consulted when expiration has been
+     * set up for the cache.
+     * @return the current time in nanoseconds, relative to an arbitrary origin
+     */
+    protected long currentTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Rebuilds the expiration wheel to match the current expiration settings, rescheduling all items
+     * already in the cache from the time they were last written or read.
+     */
+    private void resetExpirationWheel() {
+        if (expireAfterWrite == 0 && expireAfterAccess == 0) {
+            expirationWheel = null;
+            return;
+        }
+        final long now = currentTime();
+        long shortest = Math.max(expireAfterWrite, expireAfterAccess);
+        if (expireAfterWrite > 0 && expireAfterAccess > 0) {
+            shortest = Math.min(expireAfterWrite, expireAfterAccess);
+        }
+        final ExpirationWheel<V> wheel = new ExpirationWheel<V>(shortest / TICKS_PER_EXPIRATION, now);
+        final boolean initialize = expirationWheel == null;
+        expirationWheel = wheel;
+        for (CacheData<V> data : getStore().values()) {
+            data.wheelNext = null;
+            data.wheelPrevious = null;
+            if (initialize) {
+                data.writeTime = now;
+                data.accessTime = now;
+            }
+            schedule(data);
+        }
+    }
+
+    private boolean isExpired(CacheData<V> data, long now) {
+        return data.wheelNext != null && data.deadline - now <= 0;
+    }
+
+    private void schedule(CacheData<V> data) {
+        final long written = data.writeTime + expireAfterWrite;
+        final long accessed = data.accessTime + expireAfterAccess;
+        if (expireAfterWrite == 0) {
+            data.deadline = accessed;
+        } else if (expireAfterAccess == 0) {
+            data.deadline = written;
+        } else {
+            data.deadline = accessed - written < 0 ? accessed : written;
+        }
+        expirationWheel.schedule(data);
+    }
+
+    /**
+     * Removes all items the expiration wheel deems to have expired by now
+     * @param now    the current time
+     */
+    private void expire(long now) {
+        if (expirationWheel == null) {
+            return;
+        }
+        final StatsCounter statsCounter = this.statsCounter;
+        for (CacheData<V> data : expirationWheel.advance(now)) {
+            discard(data);
+            if (statsCounter != null) {
+                statsCounter.recordEviction();
+            }
+        }
+    }
+
+    /**
+     * Removes the given item from the store, provided that it has not been replaced in the meantime
+     * @param data    the cached data
+     */
+    private void discard(CacheData<V> data) {
+        //noinspection unchecked
+        final K key = (K) data.getKey();
+        if (getStore().get(key) == data) {
+            remove(key);
+        } else {
+            evictionQueue.remove(data);
+            expirationWheel.remove(data);
+        }
     }
 
     /**
@@ -241,4 +748,11 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
         return capacity;
     }
 
+    /**
+     * @return the remove policy designated for this cache
+     */
+    public RemovePolicy getRemovePolicy() {
+        return removePolicy;
+    }
+
 }
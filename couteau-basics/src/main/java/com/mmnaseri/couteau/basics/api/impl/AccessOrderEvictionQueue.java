@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+/**
+ * This eviction queue keeps cached data in a circular doubly-linked list ordered by access, so that
+ * the least recently written or read item is always right after the head of the list.
+ *
+ * @see AbstractCache.RemovePolicy#OLDEST_FIRST
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 10:20 AM)
+ */
+class AccessOrderEvictionQueue<V> implements EvictionQueue<V> {
+
+    private final AbstractCache.CacheData<V> head;
+
+    AccessOrderEvictionQueue() {
+        head = new AbstractCache.CacheData<V>(null, null);
+        clear();
+    }
+
+    @Override
+    public void add(AbstractCache.CacheData<V> data) {
+        data.linkBefore(head);
+    }
+
+    @Override
+    public void access(AbstractCache.CacheData<V> data) {
+        if (!data.isLinked()) {
+            return;
+        }
+        data.unlink();
+        data.linkBefore(head);
+    }
+
+    @Override
+    public void remove(AbstractCache.CacheData<V> data) {
+        if (data.isLinked()) {
+            data.unlink();
+        }
+    }
+
+    @Override
+    public AbstractCache.CacheData<V> candidate() {
+        return head.next == head ? null : head.next;
+    }
+
+    @Override
+    public void clear() {
+        head.next = head;
+        head.previous = head;
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Cache;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * This class exposes the statistics of a cache as an MBean. Each attribute is read from a fresh
+ * snapshot of the cache's statistics, so the cache must be recording statistics for the values
+ * to be of any use.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 3:34 PM)
+ */
+public class CacheMonitor implements CacheMonitorMBean {
+
+    public static final String DOMAIN = "com.mmnaseri.couteau";
+
+    private final Cache<?, ?> cache;
+    private ObjectName objectName;
+
+    public CacheMonitor(Cache<?, ?> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Registers this monitor with the platform MBean server
+     * @param name    the name under which the cache should be listed
+     * @return the name of the registered MBean
+     */
+    public synchronized ObjectName register(String name) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName objectName = new ObjectName(DOMAIN + ":type=Cache,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+            this.objectName = objectName;
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register cache monitor: " + name, e);
+        }
+    }
+
+    /**
+     * Removes this monitor from the platform MBean server, if it was registered
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to unregister cache monitor: " + objectName, e);
+        }
+        objectName = null;
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.getStats().getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.getStats().getMissCount();
+    }
+
+    @Override
+    public long getRequestCount() {
+        return cache.getStats().getRequestCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return cache.getStats().getHitRate();
+    }
+
+    @Override
+    public double getMissRate() {
+        return cache.getStats().getMissRate();
+    }
+
+    @Override
+    public long getLoadSuccessCount() {
+        return cache.getStats().getLoadSuccessCount();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+        return cache.getStats().getLoadFailureCount();
+    }
+
+    @Override
+    public long getTotalLoadTime() {
+        return cache.getStats().getTotalLoadTime();
+    }
+
+    @Override
+    public double getAverageLoadPenalty() {
+        return cache.getStats().getAverageLoadPenalty();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.getStats().getEvictionCount();
+    }
+
+}
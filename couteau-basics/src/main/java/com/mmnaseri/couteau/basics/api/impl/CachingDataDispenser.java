@@ -24,21 +24,82 @@
 package com.mmnaseri.couteau.basics.api.impl;
 
 import com.mmnaseri.couteau.basics.api.Cache;
+import com.mmnaseri.couteau.basics.api.CacheStats;
 import com.mmnaseri.couteau.basics.api.Filter;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * This class denotes a data dispenser that is capable of caching results in case of a miss
  * and returning those cached values for the future.
  *
+ * Once asked to record statistics, the dispenser will record its own hits, misses, and the time spent
+ * producing values, while evictions are taken from the statistics of the underlying cache.
+ *
+ * Reading many items at once through {@link #readAll(Collection)} produces all missing items through a single
+ * call to {@link #produceAll(Set)}, which subclasses can override to load them from the backing source in one go.
+ *
+ * Keys for which nothing could be produced can be remembered for a while through
+ * {@link #setNegativeTimeToLive(long, TimeUnit)}, so that repeated reads for them do not go to the source every
+ * time. Also, through {@link #setRefreshAfterWrite(long, TimeUnit, Executor)} items that have been in the cache
+ * for longer than a given period are reloaded in the background the next time they are read, while the callers
+ * keep getting the value already in the cache.
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (8/22/13, 12:40 PM)
  */
 public abstract class CachingDataDispenser<K, V> implements Cache<K, V> {
 
+    private volatile StatsCounter statsCounter;
+    /**
+     * Keys for which nothing was produced, expiring after the negative time to live
+     */
+    private volatile SegmentedCache<K, Boolean> absent;
+    /**
+     * Keys that have been written recently enough not to need a refresh, expiring after the refresh period
+     */
+    private volatile SegmentedCache<K, Boolean> fresh;
+    private volatile Executor refreshExecutor;
+    /**
+     * Keys being reloaded in the background, each with a token identifying the reload. Removing a key
+     * from the dispenser takes its token away, so that the reload knows to drop its result.
+     */
+    private final ConcurrentMap<K, Object> refreshing = new ConcurrentHashMap<K, Object>();
+    /**
+     * Guards a reload checking its token and writing its result against the token being taken away
+     */
+    private final Object refreshLock = new Object();
+
     protected abstract Cache<K, V> getCache();
 
     protected abstract V produce(K key);
 
+    /**
+     * Produces the values for all the given keys at once. By default, this calls to {@link #produce(Object)}
+     * for each key, but subclasses that can load items in batches should override it.
+     * @param keys    the keys for which values are missing
+     * @return the produced values, by their keys. Keys for which nothing could be produced should be left out.
+     */
+    protected Map<K, V> produceAll(Set<K> keys) {
+        final Map<K, V> products = new HashMap<K, V>();
+        for (K key : keys) {
+            final V product = produce(key);
+            if (product != null) {
+                products.put(key, product);
+            }
+        }
+        return products;
+    }
+
     @Override
     public boolean contains(K key) {
         return getCache().contains(key);
@@ -46,35 +107,338 @@ public abstract class CachingDataDispenser<K, V> implements Cache<K, V> {
 
     @Override
     public boolean write(K key, V value) {
-        return getCache().write(key, value);
+        final boolean written = getCache().write(key, value);
+        if (written) {
+            written(key);
+        }
+        return written;
     }
 
     @Override
     public V read(K key) {
+        final StatsCounter statsCounter = this.statsCounter;
         if (!contains(key)) {
-            final V product = produce(key);
+            if (statsCounter != null) {
+                statsCounter.recordMiss();
+            }
+            if (isKnownAbsent(key)) {
+                return null;
+            }
+            final V product = load(key);
             if (product != null) {
                 write(key, product);
             } else {
+                markAbsent(key);
                 return null;
             }
+        } else {
+            if (statsCounter != null) {
+                statsCounter.recordHit();
+            }
+            refreshIfStale(key);
         }
         return getCache().read(key);
     }
 
+    @Override
+    public Map<K, V> readAll(Collection<K> keys) {
+        final StatsCounter statsCounter = this.statsCounter;
+        final Map<K, V> items = getCache().readAll(keys);
+        final Set<K> missing = new LinkedHashSet<K>();
+        for (K key : keys) {
+            if (!items.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+        if (statsCounter != null) {
+            for (int i = missing.size(); i < keys.size(); i++) {
+                statsCounter.recordHit();
+            }
+            for (int i = 0; i < missing.size(); i++) {
+                statsCounter.recordMiss();
+            }
+        }
+        for (K key : items.keySet()) {
+            refreshIfStale(key);
+        }
+        final Iterator<K> iterator = missing.iterator();
+        while (iterator.hasNext()) {
+            if (isKnownAbsent(iterator.next())) {
+                iterator.remove();
+            }
+        }
+        if (!missing.isEmpty()) {
+            final Map<K, V> products = loadAll(missing);
+            writeAll(products);
+            items.putAll(products);
+            for (K key : missing) {
+                if (!products.containsKey(key)) {
+                    markAbsent(key);
+                }
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public boolean writeAll(Map<K, V> items) {
+        final boolean written = getCache().writeAll(items);
+        for (K key : items.keySet()) {
+            written(key);
+        }
+        return written;
+    }
+
+    /**
+     * Produces the values for all the given keys, recording the time it took if statistics are being recorded
+     * @param keys    the keys
+     * @return the produced values
+     */
+    protected Map<K, V> loadAll(Set<K> keys) {
+        final StatsCounter statsCounter = this.statsCounter;
+        if (statsCounter == null) {
+            return produceAll(keys);
+        }
+        final long start = System.nanoTime();
+        Map<K, V> products = null;
+        try {
+            products = produceAll(keys);
+            return products;
+        } finally {
+            if (products != null && !products.isEmpty()) {
+                statsCounter.recordLoadSuccess(System.nanoTime() - start);
+            } else {
+                statsCounter.recordLoadFailure(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Produces the value for the given key, recording the time it took if statistics are being recorded
+     * @param key    the key
+     * @return the produced value
+     */
+    protected V load(K key) {
+        final StatsCounter statsCounter = this.statsCounter;
+        if (statsCounter == null) {
+            return produce(key);
+        }
+        final long start = System.nanoTime();
+        V product = null;
+        try {
+            product = produce(key);
+            return product;
+        } finally {
+            if (product != null) {
+                statsCounter.recordLoadSuccess(System.nanoTime() - start);
+            } else {
+                statsCounter.recordLoadFailure(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * @return {@code null} if no statistics are to be recorded
+     */
+    protected StatsCounter getStatsCounter() {
+        return statsCounter;
+    }
+
+    /**
+     * @param key    the key
+     * @return {@code true} if nothing was produced for the key during the negative time to live
+     */
+    protected boolean isKnownAbsent(K key) {
+        final SegmentedCache<K, Boolean> absent = this.absent;
+        return absent != null && absent.contains(key);
+    }
+
+    /**
+     * Remembers that nothing could be produced for the given key, if negative results are being cached
+     * @param key    the key
+     */
+    protected void markAbsent(K key) {
+        final SegmentedCache<K, Boolean> absent = this.absent;
+        if (absent != null) {
+            absent.write(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Schedules a reload of the value for the given key on the refresh executor if the key has not been
+     * written during the refresh period and no other refresh for it is under way. The value in the cache is
+     * replaced once the reload completes; should the reload fail, the old value is kept and the refresh will
+     * be attempted again on the next read. If the key is removed, or the dispenser invalidated, while the
+     * reload is under way, its result is dropped.
+     * @param key    the key
+     */
+    protected void refreshIfStale(final K key) {
+        final SegmentedCache<K, Boolean> fresh = this.fresh;
+        final Executor executor = this.refreshExecutor;
+        final Object token = new Object();
+        if (fresh == null || executor == null || fresh.contains(key)
+                || refreshing.putIfAbsent(key, token) != null) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final V product = load(key);
+                        synchronized (refreshLock) {
+                            //the item has been removed, or removed and written again, since the reload started
+                            if (refreshing.get(key) != token || !getCache().contains(key)) {
+                                return;
+                            }
+                            if (product != null) {
+                                write(key, product);
+                            } else {
+                                remove(key);
+                                markAbsent(key);
+                            }
+                        }
+                    } finally {
+                        refreshing.remove(key, token);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.remove(key, token);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes away the tokens of the reloads under way for the given keys, so that their results are dropped
+     * @param keyFilter    the filter picking the keys, or {@code null} for all keys
+     */
+    private void cancelRefresh(Filter<K> keyFilter) {
+        if (refreshing.isEmpty()) {
+            return;
+        }
+        synchronized (refreshLock) {
+            if (keyFilter == null) {
+                refreshing.clear();
+                return;
+            }
+            final Iterator<K> iterator = refreshing.keySet().iterator();
+            while (iterator.hasNext()) {
+                if (keyFilter.accepts(iterator.next())) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void written(K key) {
+        final SegmentedCache<K, Boolean> absent = this.absent;
+        if (absent != null) {
+            absent.remove(key);
+        }
+        final SegmentedCache<K, Boolean> fresh = this.fresh;
+        if (fresh != null) {
+            fresh.write(key, Boolean.TRUE);
+        }
+    }
+
     @Override
     public boolean remove(K key) {
+        if (refreshing.containsKey(key)) {
+            synchronized (refreshLock) {
+                refreshing.remove(key);
+            }
+        }
+        final SegmentedCache<K, Boolean> absent = this.absent;
+        if (absent != null) {
+            absent.remove(key);
+        }
+        final SegmentedCache<K, Boolean> fresh = this.fresh;
+        if (fresh != null) {
+            fresh.remove(key);
+        }
         return getCache().remove(key);
     }
 
     @Override
     public int remove(Filter<K> keyFilter) {
+        cancelRefresh(keyFilter);
+        final SegmentedCache<K, Boolean> absent = this.absent;
+        if (absent != null) {
+            absent.remove(keyFilter);
+        }
+        final SegmentedCache<K, Boolean> fresh = this.fresh;
+        if (fresh != null) {
+            fresh.remove(keyFilter);
+        }
         return getCache().remove(keyFilter);
     }
 
     @Override
     public void invalidate() {
+        cancelRefresh(null);
+        final SegmentedCache<K, Boolean> absent = this.absent;
+        if (absent != null) {
+            absent.invalidate();
+        }
+        final SegmentedCache<K, Boolean> fresh = this.fresh;
+        if (fresh != null) {
+            fresh.invalidate();
+        }
         getCache().invalidate();
     }
 
+    /**
+     * Sets the period during which a key for which nothing could be produced is reported as missing without
+     * asking the source again. Writing a value for the key ends this period early.
+     * @param duration    the period. Zero or less turns caching of negative results off.
+     * @param unit        the unit of the period
+     */
+    public void setNegativeTimeToLive(long duration, TimeUnit unit) {
+        if (duration <= 0) {
+            absent = null;
+            return;
+        }
+        final SegmentedCache<K, Boolean> absent = new SegmentedCache<K, Boolean>(Integer.MAX_VALUE, AbstractCache.RemovePolicy.OLDEST_FIRST);
+        absent.setExpireAfterWrite(duration, unit);
+        this.absent = absent;
+    }
+
+    /**
+     * Sets the period after which reading an item triggers a reload of its value in the background.
+     * Items already in the cache when this is set are considered due for a refresh.
+     * @param duration    the period. Zero or less turns refreshing off.
+     * @param unit        the unit of the period
+     * @param executor    the executor on which reloads will be run
+     */
+    public void setRefreshAfterWrite(long duration, TimeUnit unit, Executor executor) {
+        if (duration <= 0 || executor == null) {
+            fresh = null;
+            refreshExecutor = null;
+            return;
+        }
+        final SegmentedCache<K, Boolean> fresh = new SegmentedCache<K, Boolean>(Integer.MAX_VALUE, AbstractCache.RemovePolicy.OLDEST_FIRST);
+        fresh.setExpireAfterWrite(duration, unit);
+        this.refreshExecutor = executor;
+        this.fresh = fresh;
+    }
+
+    @Override
+    public CacheStats getStats() {
+        final StatsCounter statsCounter = this.statsCounter;
+        if (statsCounter == null) {
+            return CacheStats.EMPTY;
+        }
+        return statsCounter.snapshot().plus(new CacheStats(0, 0, 0, 0, 0, getCache().getStats().getEvictionCount()));
+    }
+
+    /**
+     * Turns recording of statistics on or off. Turning recording off discards what has been
+     * recorded so far.
+     * @param recordStats    whether or not statistics should be recorded
+     */
+    public void setRecordStats(boolean recordStats) {
+        statsCounter = recordStats ? new StatsCounter() : null;
+    }
+
 }
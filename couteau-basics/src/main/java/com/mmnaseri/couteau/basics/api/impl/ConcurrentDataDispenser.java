@@ -25,20 +25,112 @@ package com.mmnaseri.couteau.basics.api.impl;
 
 import com.mmnaseri.couteau.basics.api.Cache;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
 /**
  * This is an extension to {@link CachingDataDispenser} that designates a thread-safe cache
  * as the data store.
  *
+ * The cache is segmented (see {@link SegmentedCache}), so that eviction is striped across segments.
+ * Additionally, concurrent misses on the same key are coalesced, so that only one thread calls to
+ * {@link #produce(Object)} while the others wait for its result.
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (8/22/13, 12:44 PM)
  */
 public abstract class ConcurrentDataDispenser<K, V> extends CachingDataDispenser<K, V> {
 
-    private final Cache<K, V> cache = new ConcurrentCache<K, V>();
+    private final SegmentedCache<K, V> cache;
+    private final ConcurrentMap<K, FutureTask<V>> loads = new ConcurrentHashMap<K, FutureTask<V>>();
+
+    public ConcurrentDataDispenser() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public ConcurrentDataDispenser(int capacity) {
+        this(capacity, AbstractCache.RemovePolicy.LEAST_USED_FIRST);
+    }
+
+    public ConcurrentDataDispenser(int capacity, AbstractCache.RemovePolicy removePolicy) {
+        this(capacity, removePolicy, SegmentedCache.DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public ConcurrentDataDispenser(int capacity, AbstractCache.RemovePolicy removePolicy, int concurrencyLevel) {
+        cache = new SegmentedCache<K, V>(capacity, removePolicy, concurrencyLevel);
+    }
 
     @Override
     protected Cache<K, V> getCache() {
         return cache;
     }
 
+    @Override
+    public V read(final K key) {
+        final StatsCounter statsCounter = getStatsCounter();
+        final V cached = getCache().read(key);
+        if (cached != null) {
+            if (statsCounter != null) {
+                statsCounter.recordHit();
+            }
+            refreshIfStale(key);
+            return cached;
+        }
+        if (statsCounter != null) {
+            statsCounter.recordMiss();
+        }
+        if (isKnownAbsent(key)) {
+            return null;
+        }
+        final FutureTask<V> load = new FutureTask<V>(new Callable<V>() {
+            @Override
+            public V call() throws Exception {
+                final V cached = getCache().read(key);
+                if (cached != null) {
+                    return cached;
+                }
+                final V product = load(key);
+                if (product != null) {
+                    write(key, product);
+                } else {
+                    markAbsent(key);
+                }
+                return product;
+            }
+        });
+        FutureTask<V> current = loads.putIfAbsent(key, load);
+        if (current == null) {
+            current = load;
+            try {
+                load.run();
+            } finally {
+                loads.remove(key, load);
+            }
+        }
+        try {
+            return current.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Failed to produce value for key: " + key, cause);
+        }
+    }
+
+    @Override
+    public void setRecordStats(boolean recordStats) {
+        super.setRecordStats(recordStats);
+        cache.setRecordStats(recordStats);
+    }
+
 }
@@ -0,0 +1,65 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+/**
+ * The eviction queue keeps track of the order in which cached data should be let go of, once the cache
+ * exceeds its capacity. All operations on a queue are expected to run in constant time, and none of them
+ * are thread-safe; it is up to the cache to guard access to the queue.
+ *
+ * @see AbstractCache.RemovePolicy
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 10:12 AM)
+ */
+interface EvictionQueue<V> {
+
+    /**
+     * Registers a newly cached item with the queue
+     * @param data    the cached data
+     */
+    void add(AbstractCache.CacheData<V> data);
+
+    /**
+     * Notifies the queue that the item has been accessed. Items that are no longer queued are ignored.
+     * @param data    the cached data
+     */
+    void access(AbstractCache.CacheData<V> data);
+
+    /**
+     * Removes the item from the queue. Items that are no longer queued are ignored.
+     * @param data    the cached data
+     */
+    void remove(AbstractCache.CacheData<V> data);
+
+    /**
+     * @return the item that should be removed first, or {@code null} if the queue is empty
+     */
+    AbstractCache.CacheData<V> candidate();
+
+    /**
+     * Removes all items from the queue
+     */
+    void clear();
+
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is a hashed timing wheel which keeps track of when cached data are due to expire. Each item is
+ * linked into the bucket for the tick of its deadline, so scheduling an item is a constant time operation.
+ * Advancing the wheel only visits the buckets for the ticks that have passed since the last time, and items
+ * whose deadline lies in a later revolution of the wheel are simply put back.
+ *
+ * This class is not thread-safe; it is up to the cache to guard access to it.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 1:15 PM)
+ */
+class ExpirationWheel<V> {
+
+    private static final int BUCKETS = 64;
+
+    private final long tickDuration;
+    private final AbstractCache.CacheData<V>[] buckets;
+    private long lastTick;
+
+    /**
+     * @param tickDuration    the time span covered by each bucket
+     * @param now             the current time
+     */
+    ExpirationWheel(long tickDuration, long now) {
+        this.tickDuration = Math.max(1, tickDuration);
+        //noinspection unchecked
+        this.buckets = new AbstractCache.CacheData[BUCKETS];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new AbstractCache.CacheData<V>(null, null);
+        }
+        this.lastTick = now / this.tickDuration;
+        clear();
+    }
+
+    private AbstractCache.CacheData<V> bucketFor(long tick) {
+        return buckets[(int) (tick & (BUCKETS - 1))];
+    }
+
+    /**
+     * Links the item into the bucket for its deadline, taking it out of any bucket it was in before
+     * @param data    the cached data
+     */
+    void schedule(AbstractCache.CacheData<V> data) {
+        remove(data);
+        data.linkBeforeInWheel(bucketFor(Math.max(data.getDeadline() / tickDuration, lastTick)));
+    }
+
+    /**
+     * @param data    the cached data which should no longer be tracked
+     */
+    void remove(AbstractCache.CacheData<V> data) {
+        if (data.isInWheel()) {
+            data.unlinkFromWheel();
+        }
+    }
+
+    /**
+     * Moves the wheel forward to the current time, collecting all items whose deadline has passed.
+     * Expired items are no longer tracked by the wheel once they are returned.
+     * @param now    the current time
+     * @return the expired items
+     */
+    List<AbstractCache.CacheData<V>> advance(long now) {
+        final List<AbstractCache.CacheData<V>> expired = new ArrayList<AbstractCache.CacheData<V>>();
+        final long currentTick = now / tickDuration;
+        if (currentTick < lastTick) {
+            return expired;
+        }
+        final long ticks = Math.min(currentTick - lastTick, BUCKETS - 1);
+        final long firstTick = currentTick - ticks;
+        lastTick = currentTick;
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            final AbstractCache.CacheData<V> bucket = bucketFor(tick);
+            AbstractCache.CacheData<V> data = bucket.wheelNext;
+            bucket.wheelNext = bucket;
+            bucket.wheelPrevious = bucket;
+            while (data != bucket) {
+                final AbstractCache.CacheData<V> next = data.wheelNext;
+                data.wheelNext = null;
+                data.wheelPrevious = null;
+                if (data.getDeadline() - now <= 0) {
+                    expired.add(data);
+                } else {
+                    schedule(data);
+                }
+                data = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Removes all items from the wheel
+     */
+    void clear() {
+        for (AbstractCache.CacheData<V> bucket : buckets) {
+            bucket.wheelNext = bucket;
+            bucket.wheelPrevious = bucket;
+        }
+    }
+
+}
@@ -26,31 +26,182 @@ package com.mmnaseri.couteau.basics.api.impl;
 import com.mmnaseri.couteau.basics.api.Filter;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class acts as an object-oriented representation of a logical AND between many
  * given filters; i.e., should any one of these filters fail, the whole filter will fail.
  *
+ * By default, filters are evaluated in the order they were added. In adaptive mode (see {@link #setAdaptive(boolean)})
+ * the chain times one in every {@value #SAMPLE_INTERVAL} evaluations, recording how long each filter takes and how
+ * often it rejects an item, and periodically reorders the filters so that cheap filters that reject many items are
+ * tried first. Since the outcome of a logical AND does not depend on the order of its operands, this does not change
+ * which items are accepted, as long as the filters do not rely on one another, e.g. one filter only being asked
+ * about items that have passed another.
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/7/30, 5:34)
  */
 public class FilterChain<E> implements Filter<E> {
 
+    /**
+     * One in this many evaluations is timed in adaptive mode
+     */
+    private static final int SAMPLE_INTERVAL = 16;
+
+    /**
+     * The number of timed evaluations after which the filters are reordered
+     */
+    private static final int REORDER_INTERVAL = 64;
+
+    private static class FilterStatistics<E> {
+
+        private final Filter<? super E> filter;
+        private final AtomicLong evaluated = new AtomicLong(0);
+        private final AtomicLong rejected = new AtomicLong(0);
+        private final AtomicLong time = new AtomicLong(0);
+
+        private FilterStatistics(Filter<? super E> filter) {
+            this.filter = filter;
+        }
+
+        private void record(long elapsed, boolean accepted) {
+            evaluated.incrementAndGet();
+            time.addAndGet(elapsed);
+            if (!accepted) {
+                rejected.incrementAndGet();
+            }
+        }
+
+        /**
+         * @return the expected cost of evaluating this filter per item it rejects. Filters should be evaluated
+         * in ascending order of this rank.
+         */
+        private double rank() {
+            final long evaluated = this.evaluated.get();
+            if (evaluated == 0) {
+                return 0;
+            }
+            //smoothed, so that a filter that has not rejected anything yet does not get an infinite rank
+            final double rejection = (rejected.get() + 1d) / (evaluated + 2d);
+            return (double) time.get() / evaluated / rejection;
+        }
+
+    }
+
     protected final List<Filter<? super E>> filters = new ArrayList<Filter<? super E>>();
+    private volatile boolean adaptive = false;
+    private volatile List<FilterStatistics<E>> order;
+    private final AtomicLong evaluations = new AtomicLong(0);
 
     @Override
     public boolean accepts(E item) {
-        for (Filter<? super E> filter : filters) {
-            if (!filter.accepts(item)) {
-                return false;
+        if (!adaptive) {
+            for (Filter<? super E> filter : filters) {
+                if (!filter.accepts(item)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        final List<FilterStatistics<E>> order = getOrder();
+        final long evaluation = evaluations.incrementAndGet();
+        if (evaluation % SAMPLE_INTERVAL != 0) {
+            for (int i = 0; i < order.size(); i++) {
+                if (!order.get(i).filter.accepts(item)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        try {
+            for (int i = 0; i < order.size(); i++) {
+                final FilterStatistics<E> statistics = order.get(i);
+                final long start = System.nanoTime();
+                final boolean accepted = statistics.filter.accepts(item);
+                statistics.record(System.nanoTime() - start, accepted);
+                if (!accepted) {
+                    return false;
+                }
             }
+            return true;
+        } finally {
+            if (evaluation % (SAMPLE_INTERVAL * REORDER_INTERVAL) == 0) {
+                reorder(order);
+            }
+        }
+    }
+
+    private List<FilterStatistics<E>> getOrder() {
+        List<FilterStatistics<E>> order = this.order;
+        if (order == null || order.size() != filters.size()) {
+            order = new ArrayList<FilterStatistics<E>>(filters.size());
+            for (Filter<? super E> filter : filters) {
+                order.add(new FilterStatistics<E>(filter));
+            }
+            this.order = order;
+        }
+        return order;
+    }
+
+    private void reorder(List<FilterStatistics<E>> order) {
+        //ranks are taken once up front, since other threads may be recording statistics while we sort
+        final double[] ranks = new double[order.size()];
+        final List<Integer> indices = new ArrayList<Integer>(order.size());
+        for (int i = 0; i < ranks.length; i++) {
+            ranks[i] = order.get(i).rank();
+            indices.add(i);
+        }
+        Collections.sort(indices, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return Double.compare(ranks[first], ranks[second]);
+            }
+        });
+        final List<FilterStatistics<E>> reordered = new ArrayList<FilterStatistics<E>>(order.size());
+        for (Integer index : indices) {
+            reordered.add(order.get(index));
+        }
+        if (this.order == order) {
+            this.order = reordered;
         }
-        return true;
     }
 
     public void addFilter(Filter<? super E> filter) {
         filters.add(filter);
+        order = null;
+    }
+
+    /**
+     * Turns adaptive reordering of the filters on or off. Turning it off restores the order in which the
+     * filters were added and discards the statistics gathered so far.
+     * @param adaptive    whether or not filters should be reordered based on their cost and selectivity
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        order = null;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * @return the filters, in the order they are currently being evaluated
+     */
+    public List<Filter<? super E>> getEvaluationOrder() {
+        final List<Filter<? super E>> filters = new ArrayList<Filter<? super E>>();
+        if (!adaptive) {
+            filters.addAll(this.filters);
+            return filters;
+        }
+        for (FilterStatistics<E> statistics : getOrder()) {
+            filters.add(statistics.filter);
+        }
+        return filters;
     }
 
 }
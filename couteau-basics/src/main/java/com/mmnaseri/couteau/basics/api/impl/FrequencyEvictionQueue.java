@@ -0,0 +1,138 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+/**
+ * This eviction queue groups cached data into buckets of items with the same access frequency. Buckets are
+ * kept in a list sorted by frequency, so that an access moves an item to the adjacent bucket, and the least
+ * used item is always the oldest item in the first bucket. Items with equal frequencies are thus removed in
+ * the order they reached that frequency.
+ *
+ * @see AbstractCache.RemovePolicy#LEAST_USED_FIRST
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 10:34 AM)
+ */
+class FrequencyEvictionQueue<V> implements EvictionQueue<V> {
+
+    /**
+     * A bucket holds all the items that have been accessed the same number of times
+     * @param <V>    the type of the data in the cache
+     */
+    static class Bucket<V> {
+
+        private final long frequency;
+        private final AbstractCache.CacheData<V> items;
+        private Bucket<V> previous;
+        private Bucket<V> next;
+
+        private Bucket(long frequency) {
+            this.frequency = frequency;
+            this.items = new AbstractCache.CacheData<V>(null, null);
+            this.items.next = this.items;
+            this.items.previous = this.items;
+        }
+
+        private boolean isEmpty() {
+            return items.next == items;
+        }
+
+        private void add(AbstractCache.CacheData<V> data) {
+            data.linkBefore(items);
+            data.bucket = this;
+        }
+
+        private void linkAfter(Bucket<V> predecessor) {
+            previous = predecessor;
+            next = predecessor.next;
+            next.previous = this;
+            predecessor.next = this;
+        }
+
+        private void unlink() {
+            previous.next = next;
+            next.previous = previous;
+        }
+
+    }
+
+    private final Bucket<V> head;
+
+    FrequencyEvictionQueue() {
+        head = new Bucket<V>(-1);
+        clear();
+    }
+
+    @Override
+    public void add(AbstractCache.CacheData<V> data) {
+        Bucket<V> bucket = head.next;
+        if (bucket == head || bucket.frequency != 0) {
+            bucket = new Bucket<V>(0);
+            bucket.linkAfter(head);
+        }
+        bucket.add(data);
+    }
+
+    @Override
+    public void access(AbstractCache.CacheData<V> data) {
+        final Bucket<V> current = data.bucket;
+        if (current == null) {
+            return;
+        }
+        Bucket<V> bucket = current.next;
+        if (bucket == head || bucket.frequency != current.frequency + 1) {
+            bucket = new Bucket<V>(current.frequency + 1);
+            bucket.linkAfter(current);
+        }
+        data.unlink();
+        bucket.add(data);
+        if (current.isEmpty()) {
+            current.unlink();
+        }
+    }
+
+    @Override
+    public void remove(AbstractCache.CacheData<V> data) {
+        final Bucket<V> bucket = data.bucket;
+        if (bucket == null) {
+            return;
+        }
+        data.unlink();
+        data.bucket = null;
+        if (bucket.isEmpty()) {
+            bucket.unlink();
+        }
+    }
+
+    @Override
+    public AbstractCache.CacheData<V> candidate() {
+        return head.next == head ? null : head.next.items.next;
+    }
+
+    @Override
+    public void clear() {
+        head.next = head;
+        head.previous = head;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+/**
+ * This is a count-min sketch estimating how often keys have been seen. Each key is counted in four
+ * 4-bit counters picked by different hashes, and its frequency is taken to be the smallest of them.
+ * Sixteen counters are packed into each {@code long}, so the sketch takes up a small, fixed amount of
+ * memory regardless of the number of distinct keys.
+ *
+ * Once a number of increments proportional to the size of the sketch have been made, all counters are
+ * halved, so that the sketch favors recent popularity over historical popularity.
+ *
+ * This class is not thread-safe.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 5:10 PM)
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAXIMUM_TABLE_SIZE = 1 << 16;
+    private static final int MAXIMUM_COUNT = 15;
+    private static final int SAMPLES_PER_ITEM = 10;
+
+    private final long[] table;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * @param capacity    the number of items the sketch should be able to tell apart reasonably well
+     */
+    FrequencySketch(int capacity) {
+        int length = 8;
+        while (length < capacity / 4 && length < MAXIMUM_TABLE_SIZE) {
+            length <<= 1;
+        }
+        table = new long[length];
+        sampleSize = length * 16 / 4 * SAMPLES_PER_ITEM;
+    }
+
+    private static int spread(int hash) {
+        int spread = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        spread = ((spread >>> 16) ^ spread) * 0x45d9f3b;
+        return (spread >>> 16) ^ spread;
+    }
+
+    private int indexOf(int hash, int row) {
+        long index = (hash + SEEDS[row]) * SEEDS[row];
+        index += index >>> 32;
+        return ((int) index) & (table.length - 1);
+    }
+
+    /**
+     * @param key    the key
+     * @return the estimated number of times the key has been seen, at most 15
+     */
+    int frequency(Object key) {
+        final int hash = spread(key == null ? 0 : key.hashCode());
+        final int start = (hash & 3) << 2;
+        int frequency = MAXIMUM_COUNT;
+        for (int row = 0; row < SEEDS.length; row++) {
+            final int offset = (start + row) << 2;
+            final int count = (int) ((table[indexOf(hash, row)] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an occurrence of the key
+     * @param key    the key
+     */
+    void increment(Object key) {
+        final int hash = spread(key == null ? 0 : key.hashCode());
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            final int index = indexOf(hash, row);
+            final int offset = (start + row) << 2;
+            final long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Halves all counters, so that older occurrences weigh less than newer ones
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size /= 2;
+    }
+
+}
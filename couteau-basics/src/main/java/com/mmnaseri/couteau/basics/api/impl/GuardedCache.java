@@ -0,0 +1,179 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Cache;
+import com.mmnaseri.couteau.basics.api.CacheStats;
+import com.mmnaseri.couteau.basics.api.Filter;
+import com.mmnaseri.couteau.basics.collections.BloomFilter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This cache keeps a {@link BloomFilter} of all the keys written to another cache, so that lookups for keys that
+ * have definitely never been written are answered right away, without touching the guarded cache. This pays off
+ * when a miss is expensive to confirm, as with caches backed by files or remote stores.
+ *
+ * Keys cannot be taken out of a Bloom filter, so keys that are removed or evicted from the guarded cache still
+ * go through to it, until the whole cache is invalidated. Also, the guard only knows of the keys written through
+ * it; keys that were already in the guarded cache, such as those of a reopened {@link MappedFileCache}, must be
+ * made known through {@link #admit(Object)}.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 7:20 PM)
+ */
+public class GuardedCache<K, V> implements Cache<K, V> {
+
+    private final Cache<K, V> cache;
+    private final BloomFilter<K> guard;
+    private final AtomicLong negatives = new AtomicLong(0);
+    /**
+     * Writes hold this lock shared, so that invalidation cannot clear the guard between a key being
+     * added to it and the item being written
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public GuardedCache(Cache<K, V> cache) {
+        this(cache, new BloomFilter<K>());
+    }
+
+    /**
+     * @param cache    the cache to guard
+     * @param guard    the filter to use for remembering keys
+     */
+    public GuardedCache(Cache<K, V> cache, BloomFilter<K> guard) {
+        this.cache = cache;
+        this.guard = guard;
+    }
+
+    private boolean mightContain(K key) {
+        if (guard.mightContain(key)) {
+            return true;
+        }
+        negatives.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Lets the guard know that the guarded cache might hold an item for the given key
+     * @param key    the key
+     */
+    public void admit(K key) {
+        guard.add(key);
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return mightContain(key) && cache.contains(key);
+    }
+
+    @Override
+    public boolean write(K key, V value) {
+        lock.readLock().lock();
+        try {
+            guard.add(key);
+            return cache.write(key, value);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public V read(K key) {
+        return mightContain(key) ? cache.read(key) : null;
+    }
+
+    @Override
+    public boolean remove(K key) {
+        //a key the guard has never seen is not in the cache, which counts as removed
+        return !guard.mightContain(key) || cache.remove(key);
+    }
+
+    @Override
+    public int remove(Filter<K> keyFilter) {
+        return cache.remove(keyFilter);
+    }
+
+    @Override
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            cache.invalidate();
+            guard.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    @Override
+    public Map<K, V> readAll(Collection<K> keys) {
+        final List<K> candidates = new ArrayList<K>(keys.size());
+        for (K key : keys) {
+            if (mightContain(key)) {
+                candidates.add(key);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return new HashMap<K, V>();
+        }
+        return cache.readAll(candidates);
+    }
+
+    @Override
+    public boolean writeAll(Map<K, V> items) {
+        lock.readLock().lock();
+        try {
+            for (K key : items.keySet()) {
+                guard.add(key);
+            }
+            return cache.writeAll(items);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of lookups answered by the guard alone
+     */
+    public long getNegativeCount() {
+        return negatives.get();
+    }
+
+    public Cache<K, V> getCache() {
+        return cache;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * This serializer relies on standard Java serialization, and thus requires values to be
+ * {@link java.io.Serializable}.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 6:24 PM)
+ */
+public class JavaSerializer<V> implements Serializer<V> {
+
+    @Override
+    public byte[] serialize(V value) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            final ObjectOutputStream stream = new ObjectOutputStream(bytes);
+            stream.writeObject(value);
+            stream.close();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to serialize value: " + value, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public V deserialize(byte[] data) {
+        try {
+            final ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(data));
+            try {
+                //noinspection unchecked
+                return (V) stream.readObject();
+            } finally {
+                stream.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to deserialize value", e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Failed to deserialize value", e);
+        }
+    }
+
+}
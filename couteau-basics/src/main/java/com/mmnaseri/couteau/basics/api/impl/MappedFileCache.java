@@ -0,0 +1,532 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Cache;
+import com.mmnaseri.couteau.basics.api.CacheStats;
+import com.mmnaseri.couteau.basics.api.Filter;
+import com.mmnaseri.couteau.basics.api.Serializer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * This is a thread-safe cache which persists its items into a memory-mapped file, so that they survive
+ * restarts. It is mostly meant to be used as a second level behind an in-memory cache (see
+ * {@link TieredCache}).
+ *
+ * The file is an append-only log of records, each carrying the serialized key and value of an item
+ * along with a checksum. Removals are recorded as records without a value. An index from keys to the
+ * position of their latest record is kept in memory, and is rebuilt by scanning the log when the cache
+ * is opened; the scan stops at the first incomplete or corrupted record. Once the log runs out of room,
+ * the latest record of each item is copied into a fresh log next to the file, which then replaces the
+ * file in a single rename. A crash during compaction thus leaves the old log intact, and the leftover
+ * of the unfinished compaction is discarded when the cache is opened again. If an item does not fit
+ * even after compaction, it is not cached.
+ *
+ * No file handles are kept open; the logs are only held through their memory mappings, which Java cannot
+ * release before they are garbage-collected. Platforms that do not let a file be replaced while it is
+ * mapped, such as Windows, will therefore refuse the rename. Compaction is then given up for good, and once
+ * the log is full, new items are no longer cached.
+ *
+ * Changes reach the disk whenever the operating system sees fit, or once {@link #flush()} or
+ * {@link #close()} have been called.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 7:40 PM)
+ */
+public class MappedFileCache<K, V> implements Cache<K, V>, Closeable {
+
+    private static final int HEADER_LENGTH = 12;
+    private static final int REMOVED = -1;
+
+    /**
+     * Describes where in the log the latest record for an item resides
+     */
+    private static class Location {
+
+        private final int offset;
+        private final int keyLength;
+        private final int valueLength;
+
+        private Location(int offset, int keyLength, int valueLength) {
+            this.offset = offset;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+        }
+
+        private int getRecordLength() {
+            return HEADER_LENGTH + keyLength + Math.max(0, valueLength);
+        }
+
+    }
+
+    private final File path;
+    private final File compactionPath;
+    private final int size;
+    private MappedByteBuffer buffer;
+    /**
+     * Cleared once the compacted log could not be put in place of the current one
+     */
+    private boolean compactable = true;
+    private final Serializer<K> keySerializer;
+    private final Serializer<V> valueSerializer;
+    private final Map<K, Location> index = new HashMap<K, Location>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int cursor;
+    private long deadBytes;
+    private volatile StatsCounter statsCounter;
+
+    /**
+     * Opens the cache, loading whatever items have been persisted into the file before
+     * @param file               the file holding the log
+     * @param size               the size of the file, which is the maximum number of bytes the log can take up.
+     *                           A single mapping cannot exceed {@link Integer#MAX_VALUE} bytes.
+     * @param keySerializer      the serializer for keys
+     * @param valueSerializer    the serializer for values
+     * @throws IOException if the file cannot be opened or mapped into memory
+     */
+    public MappedFileCache(File file, int size, Serializer<K> keySerializer, Serializer<V> valueSerializer) throws IOException {
+        this.keySerializer = keySerializer;
+        this.valueSerializer = valueSerializer;
+        this.path = file;
+        this.compactionPath = new File(file.getPath() + ".compacting");
+        this.size = size;
+        //whatever is left here is from a compaction that never finished, and the log is still whole
+        //noinspection ResultOfMethodCallIgnored
+        compactionPath.delete();
+        this.buffer = map(file);
+        load();
+    }
+
+    /**
+     * Maps the file into memory. The file is closed right away, since the mapping stays valid without it,
+     * and an open handle would keep the file from being replaced on some platforms.
+     * @param file    the file
+     * @return the mapping
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    private MappedByteBuffer map(File file) throws IOException {
+        final RandomAccessFile handle = new RandomAccessFile(file, "rw");
+        try {
+            return handle.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            handle.close();
+        }
+    }
+
+    private int checksum(int offset, int length) {
+        final CRC32 crc = new CRC32();
+        crc.update(readBytes(offset, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Scans the log from the beginning, rebuilding the index
+     */
+    private void load() {
+        int position = 0;
+        while (position + HEADER_LENGTH <= buffer.capacity()) {
+            final int keyLength = buffer.getInt(position);
+            final int valueLength = buffer.getInt(position + 4);
+            if (keyLength <= 0 || valueLength < REMOVED) {
+                break;
+            }
+            final Location location = new Location(position, keyLength, valueLength);
+            final int dataLength = location.getRecordLength() - HEADER_LENGTH;
+            if ((long) position + location.getRecordLength() > buffer.capacity()
+                    || checksum(position + HEADER_LENGTH, dataLength) != buffer.getInt(position + 8)) {
+                break;
+            }
+            final K key;
+            try {
+                key = keySerializer.deserialize(readBytes(position + HEADER_LENGTH, keyLength));
+            } catch (RuntimeException e) {
+                break;
+            }
+            final Location previous = valueLength == REMOVED ? index.remove(key) : index.put(key, location);
+            if (previous != null) {
+                deadBytes += previous.getRecordLength();
+            }
+            if (valueLength == REMOVED) {
+                deadBytes += location.getRecordLength();
+            }
+            position += location.getRecordLength();
+        }
+        cursor = position;
+        terminate();
+    }
+
+    private byte[] readBytes(int offset, int length) {
+        final byte[] data = new byte[length];
+        final ByteBuffer source = buffer.duplicate();
+        source.position(offset);
+        source.get(data);
+        return data;
+    }
+
+    /**
+     * Marks the end of the log, so that a later scan does not read past it
+     */
+    private void terminate() {
+        if (cursor + 4 <= buffer.capacity()) {
+            buffer.putInt(cursor, 0);
+        }
+    }
+
+    /**
+     * Appends a record to the log, compacting the log first if there is not enough room
+     * @return the location of the record, or {@code null} if it could not fit
+     */
+    private Location append(byte[] key, byte[] value) {
+        final int valueLength = value == null ? REMOVED : value.length;
+        final Location probe = new Location(0, key.length, valueLength);
+        if ((long) cursor + probe.getRecordLength() > buffer.capacity()) {
+            compact();
+            if ((long) cursor + probe.getRecordLength() > buffer.capacity()) {
+                return null;
+            }
+        }
+        final Location location = new Location(cursor, key.length, valueLength);
+        final ByteBuffer target = buffer.duplicate();
+        target.position(cursor + HEADER_LENGTH);
+        target.put(key);
+        if (value != null) {
+            target.put(value);
+        }
+        final int checksum = checksum(cursor + HEADER_LENGTH, location.getRecordLength() - HEADER_LENGTH);
+        buffer.putInt(cursor + 8, checksum);
+        buffer.putInt(cursor + 4, valueLength);
+        buffer.putInt(cursor, key.length);
+        cursor += location.getRecordLength();
+        terminate();
+        return location;
+    }
+
+    /**
+     * Copies the latest record of each item into a fresh log, and then puts the fresh log in place of the
+     * current one. The current log is not touched, so that it remains whole should the process die midway.
+     */
+    private void compact() {
+        if (deadBytes == 0 || !compactable) {
+            return;
+        }
+        final List<Map.Entry<K, Location>> entries = new ArrayList<Map.Entry<K, Location>>(index.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<K, Location>>() {
+            @Override
+            public int compare(Map.Entry<K, Location> first, Map.Entry<K, Location> second) {
+                return first.getValue().offset < second.getValue().offset ? -1 : (first.getValue().offset == second.getValue().offset ? 0 : 1);
+            }
+        });
+        final MappedByteBuffer compacted;
+        final Map<K, Location> locations = new HashMap<K, Location>();
+        int position = 0;
+        try {
+            compacted = map(compactionPath);
+        } catch (IOException e) {
+            discard();
+            return;
+        }
+        try {
+            for (Map.Entry<K, Location> entry : entries) {
+                final Location location = entry.getValue();
+                final ByteBuffer target = compacted.duplicate();
+                target.position(position);
+                target.put(readBytes(location.offset, location.getRecordLength()));
+                locations.put(entry.getKey(), new Location(position, location.keyLength, location.valueLength));
+                position += location.getRecordLength();
+            }
+            if (position + 4 <= compacted.capacity()) {
+                compacted.putInt(position, 0);
+            }
+            compacted.force();
+            switchTo(compactionPath);
+        } catch (IOException e) {
+            //the current log is still whole. Since the rename fails every time on platforms that will not
+            //replace a mapped file, compaction is not attempted again
+            compactable = false;
+            discard();
+            return;
+        } catch (RuntimeException e) {
+            discard();
+            throw e;
+        }
+        buffer = compacted;
+        index.putAll(locations);
+        cursor = position;
+        deadBytes = 0;
+    }
+
+    /**
+     * Puts the fully written compacted log in place of the current one. The rename is the single step
+     * that takes the cache from its old log over to the new one.
+     * @param compacted    the compacted log
+     * @throws IOException if the compacted log cannot replace the current one
+     */
+    void switchTo(File compacted) throws IOException {
+        if (!compacted.renameTo(path)) {
+            throw new IOException("Failed to replace " + path + " with its compacted log");
+        }
+    }
+
+    private void discard() {
+        //noinspection ResultOfMethodCallIgnored
+        compactionPath.delete();
+    }
+
+    @Override
+    public boolean contains(K key) {
+        lock.readLock().lock();
+        try {
+            return index.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean write(K key, V value) {
+        final byte[] keyData = keySerializer.serialize(key);
+        final byte[] valueData = valueSerializer.serialize(value);
+        lock.writeLock().lock();
+        try {
+            return writeItem(key, keyData, valueData);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Serializes all items up front, and then appends them to the log while holding on to the lock
+     * only once
+     * @param items    the items, by their keys
+     * @return {@code true} means that all items have been successfully written to the cache
+     */
+    @Override
+    public boolean writeAll(Map<K, V> items) {
+        final List<K> keys = new ArrayList<K>();
+        final List<byte[]> keyData = new ArrayList<byte[]>();
+        final List<byte[]> valueData = new ArrayList<byte[]>();
+        for (Map.Entry<K, V> item : items.entrySet()) {
+            keys.add(item.getKey());
+            keyData.add(keySerializer.serialize(item.getKey()));
+            valueData.add(valueSerializer.serialize(item.getValue()));
+        }
+        boolean written = true;
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                written &= writeItem(keys.get(i), keyData.get(i), valueData.get(i));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return written;
+    }
+
+    /**
+     * Appends the item to the log and points the index to it. The caller must hold the write lock.
+     * @return {@code true} if the item could be appended
+     */
+    private boolean writeItem(K key, byte[] keyData, byte[] valueData) {
+        final Location location = append(keyData, valueData);
+        if (location == null) {
+            return false;
+        }
+        final Location previous = index.put(key, location);
+        if (previous != null) {
+            deadBytes += previous.getRecordLength();
+        }
+        return true;
+    }
+
+    @Override
+    public V read(K key) {
+        final StatsCounter statsCounter = this.statsCounter;
+        final byte[] data;
+        lock.readLock().lock();
+        try {
+            data = readItem(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (statsCounter != null) {
+            if (data != null) {
+                statsCounter.recordHit();
+            } else {
+                statsCounter.recordMiss();
+            }
+        }
+        return data == null ? null : valueSerializer.deserialize(data);
+    }
+
+    /**
+     * Copies out the serialized values of all the items while holding on to the lock only once, and
+     * then deserializes them
+     * @param keys    the keys to the items
+     * @return the cached values, by their keys
+     */
+    @Override
+    public Map<K, V> readAll(Collection<K> keys) {
+        final StatsCounter statsCounter = this.statsCounter;
+        final Map<K, byte[]> found = new HashMap<K, byte[]>();
+        lock.readLock().lock();
+        try {
+            for (K key : keys) {
+                final byte[] data = readItem(key);
+                if (data != null) {
+                    found.put(key, data);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        final Map<K, V> items = new HashMap<K, V>();
+        for (Map.Entry<K, byte[]> item : found.entrySet()) {
+            items.put(item.getKey(), valueSerializer.deserialize(item.getValue()));
+            if (statsCounter != null) {
+                statsCounter.recordHit();
+            }
+        }
+        if (statsCounter != null) {
+            for (int i = found.size(); i < keys.size(); i++) {
+                statsCounter.recordMiss();
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Copies the serialized value of the item out of the log. The caller must hold the read lock.
+     * @return the serialized value, or {@code null} if the item is not in the cache
+     */
+    private byte[] readItem(K key) {
+        final Location location = index.get(key);
+        return location == null ? null : readBytes(location.offset + HEADER_LENGTH + location.keyLength, location.valueLength);
+    }
+
+    @Override
+    public boolean remove(K key) {
+        lock.writeLock().lock();
+        try {
+            return removeItem(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean removeItem(K key) {
+        final Location previous = index.get(key);
+        if (previous == null) {
+            return true;
+        }
+        final Location tombstone = append(keySerializer.serialize(key), null);
+        if (tombstone == null) {
+            return false;
+        }
+        index.remove(key);
+        deadBytes += previous.getRecordLength() + tombstone.getRecordLength();
+        return true;
+    }
+
+    @Override
+    public int remove(Filter<K> keyFilter) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            for (K key : new ArrayList<K>(index.keySet())) {
+                if (keyFilter.accepts(key) && removeItem(key)) {
+                    removed ++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            cursor = 0;
+            deadBytes = 0;
+            terminate();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CacheStats getStats() {
+        final StatsCounter statsCounter = this.statsCounter;
+        return statsCounter == null ? CacheStats.EMPTY : statsCounter.snapshot();
+    }
+
+    /**
+     * @see AbstractCache#setRecordStats(boolean)
+     */
+    public void setRecordStats(boolean recordStats) {
+        statsCounter = recordStats ? new StatsCounter() : null;
+    }
+
+    /**
+     * Forces all changes to the log onto the disk
+     */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes all changes. The cache should not be used afterwards. Since no file handles are kept open,
+     * the file is let go of once the mapping is garbage-collected.
+     * @throws IOException if the changes cannot be flushed
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+}
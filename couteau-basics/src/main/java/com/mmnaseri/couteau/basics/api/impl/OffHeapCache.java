@@ -0,0 +1,390 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Cache;
+import com.mmnaseri.couteau.basics.api.CacheStats;
+import com.mmnaseri.couteau.basics.api.Filter;
+import com.mmnaseri.couteau.basics.api.Serializer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This is a thread-safe cache which keeps its values outside of the heap, in slabs of direct memory,
+ * so that large caches do not add to the work of the garbage collector. Only the keys and a small
+ * descriptor per item are kept on the heap. Values are turned into bytes through a {@link Serializer}
+ * on write, and recreated on each read.
+ *
+ * Values are appended to the current slab until it is full, after which the next slab is used. Once
+ * all slabs have been used, the oldest slab is reclaimed as a whole, evicting all items written to it.
+ * Eviction thus happens in the order in which items were written. Values larger than a single slab
+ * are not cached.
+ *
+ * Slabs are allocated as they are needed, so an empty cache does not take up any direct memory.
+ *
+ * This cache can back a {@link CachingDataDispenser} by being returned from its
+ * {@link CachingDataDispenser#getCache()}.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 6:40 PM)
+ */
+public class OffHeapCache<K, V> implements Cache<K, V> {
+
+    public static final int DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+
+    private static class Slab<K> {
+
+        private final ByteBuffer buffer;
+        private final List<K> keys = new ArrayList<K>();
+        private int generation;
+
+        private Slab(int size) {
+            buffer = ByteBuffer.allocateDirect(size);
+        }
+
+    }
+
+    /**
+     * Describes where in direct memory the value for an item is stored
+     */
+    private static class Location<K> {
+
+        private final Slab<K> slab;
+        private final int generation;
+        private final int offset;
+        private final int length;
+
+        private Location(Slab<K> slab, int offset, int length) {
+            this.slab = slab;
+            this.generation = slab.generation;
+            this.offset = offset;
+            this.length = length;
+        }
+
+    }
+
+    private final Serializer<V> serializer;
+    private final int slabSize;
+    private final Slab<K>[] slabs;
+    private final Map<K, Location<K>> index = new HashMap<K, Location<K>>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int current;
+    private volatile StatsCounter statsCounter;
+
+    /**
+     * Instantiates the cache with slabs of {@link #DEFAULT_SLAB_SIZE} bytes
+     * @param serializer    the serializer for values
+     * @param capacity      the total number of bytes the cache can use
+     */
+    public OffHeapCache(Serializer<V> serializer, long capacity) {
+        this(serializer, capacity, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Instantiates the cache
+     * @param serializer    the serializer for values
+     * @param capacity      the total number of bytes the cache can use. This is rounded up to a whole
+     *                      number of slabs, with a minimum of two.
+     * @param slabSize      the size of each slab, which also limits the size of a single value
+     */
+    public OffHeapCache(Serializer<V> serializer, long capacity, int slabSize) {
+        this.serializer = serializer;
+        this.slabSize = slabSize;
+        //noinspection unchecked
+        this.slabs = new Slab[(int) Math.max(2, (capacity + slabSize - 1) / slabSize)];
+    }
+
+    private void recordEviction() {
+        final StatsCounter statsCounter = this.statsCounter;
+        if (statsCounter != null) {
+            statsCounter.recordEviction();
+        }
+    }
+
+    /**
+     * @param location    the location
+     * @return {@code true} if the slab has not been reclaimed since the value was written to it
+     */
+    private static boolean isValid(Location<?> location) {
+        return location.generation == location.slab.generation;
+    }
+
+    @Override
+    public boolean contains(K key) {
+        lock.readLock().lock();
+        try {
+            final Location<K> location = index.get(key);
+            return location != null && isValid(location);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the item in the cache. Since {@link #read(Object)} cannot tell a {@code null} value apart from
+     * a missing item, writing {@code null} removes the item instead.
+     * @return {@code true} if the item was stored
+     */
+    @Override
+    public boolean write(K key, V value) {
+        final byte[] data = value == null ? null : serializer.serialize(value);
+        lock.writeLock().lock();
+        try {
+            return store(key, data);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Serializes all items up front, and then stores them while holding on to the lock only once
+     * @param items    the items, by their keys
+     * @return {@code true} means that all items have been successfully written to the cache
+     */
+    @Override
+    public boolean writeAll(Map<K, V> items) {
+        final Map<K, byte[]> serialized = new HashMap<K, byte[]>();
+        for (Map.Entry<K, V> item : items.entrySet()) {
+            serialized.put(item.getKey(), item.getValue() == null ? null : serializer.serialize(item.getValue()));
+        }
+        boolean written = true;
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<K, byte[]> item : serialized.entrySet()) {
+                written &= store(item.getKey(), item.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return written;
+    }
+
+    /**
+     * Copies the serialized value into the current slab. The caller must hold the write lock.
+     * @param data    the serialized value, or {@code null} to only remove the item
+     * @return {@code true} if the value could be stored
+     */
+    private boolean store(K key, byte[] data) {
+        index.remove(key);
+        if (data == null || data.length > slabSize) {
+            return false;
+        }
+        Slab<K> slab = slabs[current];
+        if (slab == null || slab.buffer.remaining() < data.length) {
+            slab = nextSlab();
+        }
+        final Location<K> location = new Location<K>(slab, slab.buffer.position(), data.length);
+        slab.buffer.put(data);
+        slab.keys.add(key);
+        index.put(key, location);
+        return true;
+    }
+
+    /**
+     * Moves on to the next slab, allocating it if it has not been used yet, or reclaiming it
+     * otherwise.
+     * @return the slab which should now be written to
+     */
+    private Slab<K> nextSlab() {
+        if (slabs[current] != null) {
+            current = (current + 1) % slabs.length;
+        }
+        Slab<K> slab = slabs[current];
+        if (slab == null) {
+            slab = new Slab<K>(slabSize);
+            slabs[current] = slab;
+            return slab;
+        }
+        for (K key : slab.keys) {
+            final Location<K> location = index.get(key);
+            if (location != null && location.slab == slab && isValid(location)) {
+                index.remove(key);
+                recordEviction();
+            }
+        }
+        slab.keys.clear();
+        slab.buffer.clear();
+        slab.generation++;
+        return slab;
+    }
+
+    @Override
+    public V read(K key) {
+        final StatsCounter statsCounter = this.statsCounter;
+        final byte[] data;
+        lock.readLock().lock();
+        try {
+            data = load(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (statsCounter != null) {
+            if (data != null) {
+                statsCounter.recordHit();
+            } else {
+                statsCounter.recordMiss();
+            }
+        }
+        return data == null ? null : serializer.deserialize(data);
+    }
+
+    /**
+     * Copies out the serialized values of all the items while holding on to the lock only once, and
+     * then deserializes them
+     * @param keys    the keys to the items
+     * @return the cached values, by their keys
+     */
+    @Override
+    public Map<K, V> readAll(Collection<K> keys) {
+        final StatsCounter statsCounter = this.statsCounter;
+        final Map<K, byte[]> found = new HashMap<K, byte[]>();
+        lock.readLock().lock();
+        try {
+            for (K key : keys) {
+                final byte[] data = load(key);
+                if (data != null) {
+                    found.put(key, data);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        final Map<K, V> items = new HashMap<K, V>();
+        for (Map.Entry<K, byte[]> item : found.entrySet()) {
+            items.put(item.getKey(), serializer.deserialize(item.getValue()));
+            if (statsCounter != null) {
+                statsCounter.recordHit();
+            }
+        }
+        if (statsCounter != null) {
+            for (int i = found.size(); i < keys.size(); i++) {
+                statsCounter.recordMiss();
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Copies the serialized value of the item out of its slab. The caller must hold the read lock.
+     * @return the serialized value, or {@code null} if the item is not in the cache
+     */
+    private byte[] load(K key) {
+        final Location<K> location = index.get(key);
+        if (location == null || !isValid(location)) {
+            return null;
+        }
+        final byte[] data = new byte[location.length];
+        final ByteBuffer buffer = location.slab.buffer.duplicate();
+        buffer.position(location.offset);
+        buffer.get(data);
+        return data;
+    }
+
+    @Override
+    public boolean remove(K key) {
+        lock.writeLock().lock();
+        try {
+            index.remove(key);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int remove(Filter<K> keyFilter) {
+        lock.writeLock().lock();
+        try {
+            final List<K> removed = new ArrayList<K>();
+            for (K key : index.keySet()) {
+                if (keyFilter.accepts(key)) {
+                    removed.add(key);
+                }
+            }
+            for (K key : removed) {
+                index.remove(key);
+            }
+            return removed.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            for (Slab<K> slab : slabs) {
+                if (slab != null) {
+                    slab.keys.clear();
+                    slab.buffer.clear();
+                    slab.generation++;
+                }
+            }
+            current = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CacheStats getStats() {
+        final StatsCounter statsCounter = this.statsCounter;
+        return statsCounter == null ? CacheStats.EMPTY : statsCounter.snapshot();
+    }
+
+    /**
+     * @see AbstractCache#setRecordStats(boolean)
+     */
+    public void setRecordStats(boolean recordStats) {
+        statsCounter = recordStats ? new StatsCounter() : null;
+    }
+
+    /**
+     * @return the number of bytes of direct memory allocated by the cache so far
+     */
+    public long getAllocatedSize() {
+        lock.readLock().lock();
+        try {
+            long size = 0;
+            for (Slab<K> slab : slabs) {
+                if (slab != null) {
+                    size += slabSize;
+                }
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+}
@@ -0,0 +1,397 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Cache;
+import com.mmnaseri.couteau.basics.api.CacheStats;
+import com.mmnaseri.couteau.basics.api.Filter;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This is a thread-safe cache which can hold its keys and values through soft or weak references, so that
+ * the garbage collector is free to reclaim them, shrinking the cache under memory pressure.
+ *
+ * Keys are always compared through {@link Object#equals(Object)}, regardless of how they are referenced.
+ * Note that this means that weak keys are only useful when the key objects themselves are kept alive
+ * elsewhere; a cache read through an equal, but freshly created, key will find nothing once the original
+ * key has been collected.
+ *
+ * Items whose key or value have been reclaimed are removed as part of the normal operations of the cache,
+ * and are counted as evictions in the statistics.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 4:10 PM)
+ */
+public class ReferenceCache<K, V> implements Cache<K, V> {
+
+    /**
+     * The strength of the references through which keys or values are held
+     */
+    public static enum ReferenceStrength {
+        /**
+         * Items are held through normal references, and are never reclaimed
+         */
+        STRONG,
+        /**
+         * Items are held through {@link SoftReference}s, and are reclaimed only when memory runs low
+         */
+        SOFT,
+        /**
+         * Items are held through {@link WeakReference}s, and are reclaimed once they are not referenced elsewhere
+         */
+        WEAK
+    }
+
+    /**
+     * References which, once enqueued, know how to remove their entry from the store
+     */
+    private interface Reclaimable {
+
+        void reclaim();
+
+    }
+
+    private interface ValueHolder<V> {
+
+        V get();
+
+    }
+
+    private class WeakKey extends WeakReference<K> implements Reclaimable {
+
+        private final int hash;
+
+        private WeakKey(K key, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            hash = key.hashCode();
+        }
+
+        @Override
+        public void reclaim() {
+            if (store.remove(this) != null) {
+                recordEviction();
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return referentEquals(this, obj);
+        }
+
+    }
+
+    private class SoftKey extends SoftReference<K> implements Reclaimable {
+
+        private final int hash;
+
+        private SoftKey(K key, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            hash = key.hashCode();
+        }
+
+        @Override
+        public void reclaim() {
+            if (store.remove(this) != null) {
+                recordEviction();
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return referentEquals(this, obj);
+        }
+
+    }
+
+    private static class StrongValue<V> implements ValueHolder<V> {
+
+        private final V value;
+
+        private StrongValue(V value) {
+            this.value = value;
+        }
+
+        @Override
+        public V get() {
+            return value;
+        }
+
+    }
+
+    private class WeakValue extends WeakReference<V> implements ValueHolder<V>, Reclaimable {
+
+        private final Object storeKey;
+
+        private WeakValue(Object storeKey, V value, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.storeKey = storeKey;
+        }
+
+        @Override
+        public void reclaim() {
+            if (store.remove(storeKey, this)) {
+                recordEviction();
+            }
+        }
+
+    }
+
+    private class SoftValue extends SoftReference<V> implements ValueHolder<V>, Reclaimable {
+
+        private final Object storeKey;
+
+        private SoftValue(Object storeKey, V value, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.storeKey = storeKey;
+        }
+
+        @Override
+        public void reclaim() {
+            if (store.remove(storeKey, this)) {
+                recordEviction();
+            }
+        }
+
+    }
+
+    private final ConcurrentMap<Object, ValueHolder<V>> store = new ConcurrentHashMap<Object, ValueHolder<V>>();
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+    private final ReferenceStrength keyStrength;
+    private final ReferenceStrength valueStrength;
+    private volatile StatsCounter statsCounter;
+
+    /**
+     * Instantiates the cache with strong keys and soft values
+     */
+    public ReferenceCache() {
+        this(ReferenceStrength.STRONG, ReferenceStrength.SOFT);
+    }
+
+    /**
+     * Instantiates the cache
+     * @param keyStrength      the strength of references to keys
+     * @param valueStrength    the strength of references to values
+     */
+    public ReferenceCache(ReferenceStrength keyStrength, ReferenceStrength valueStrength) {
+        this.keyStrength = keyStrength;
+        this.valueStrength = valueStrength;
+    }
+
+    private static boolean referentEquals(Reference<?> reference, Object obj) {
+        if (reference == obj) {
+            return true;
+        }
+        if (!(obj instanceof Reference) || reference.hashCode() != obj.hashCode()) {
+            return false;
+        }
+        final Object referent = reference.get();
+        return referent != null && referent.equals(((Reference<?>) obj).get());
+    }
+
+    /**
+     * @param key      the key
+     * @param queue    the queue with which the reference is registered, or {@code null} if the reference
+     *                 is only to be used for a look-up
+     * @return the object under which the item for this key is stored
+     */
+    private Object storeKey(K key, ReferenceQueue<Object> queue) {
+        switch (keyStrength) {
+            case WEAK:
+                return new WeakKey(key, queue);
+            case SOFT:
+                return new SoftKey(key, queue);
+            default:
+                return key;
+        }
+    }
+
+    private ValueHolder<V> holder(Object storeKey, V value) {
+        switch (valueStrength) {
+            case WEAK:
+                return new WeakValue(storeKey, value, queue);
+            case SOFT:
+                return new SoftValue(storeKey, value, queue);
+            default:
+                return new StrongValue<V>(value);
+        }
+    }
+
+    private void recordEviction() {
+        final StatsCounter statsCounter = this.statsCounter;
+        if (statsCounter != null) {
+            statsCounter.recordEviction();
+        }
+    }
+
+    /**
+     * Removes all items whose key or value has been reclaimed by the garbage collector. This is done on its
+     * own as part of the other operations of the cache.
+     */
+    public void cleanUp() {
+        Reference<?> reference;
+        while ((reference = queue.poll()) != null) {
+            ((Reclaimable) reference).reclaim();
+        }
+    }
+
+    @Override
+    public boolean contains(K key) {
+        cleanUp();
+        final ValueHolder<V> holder = store.get(storeKey(key, null));
+        return holder != null && holder.get() != null;
+    }
+
+    /**
+     * Stores the item in the cache. Since {@link #read(Object)} cannot tell a {@code null} value apart from
+     * a missing item, writing {@code null} removes the item instead.
+     * @return {@code true} if the item was stored
+     */
+    @Override
+    public boolean write(K key, V value) {
+        if (value == null) {
+            remove(key);
+            return false;
+        }
+        cleanUp();
+        final Object storeKey = storeKey(key, queue);
+        store.put(storeKey, holder(storeKey, value));
+        return true;
+    }
+
+    @Override
+    public V read(K key) {
+        cleanUp();
+        final StatsCounter statsCounter = this.statsCounter;
+        final ValueHolder<V> holder = store.get(storeKey(key, null));
+        final V value = holder == null ? null : holder.get();
+        if (statsCounter != null) {
+            if (value != null) {
+                statsCounter.recordHit();
+            } else {
+                statsCounter.recordMiss();
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Map<K, V> readAll(Collection<K> keys) {
+        final Map<K, V> items = new HashMap<K, V>();
+        for (K key : keys) {
+            final V value = read(key);
+            if (value != null) {
+                items.put(key, value);
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public boolean writeAll(Map<K, V> items) {
+        boolean written = true;
+        for (Map.Entry<K, V> item : items.entrySet()) {
+            written &= write(item.getKey(), item.getValue());
+        }
+        return written;
+    }
+
+    @Override
+    public boolean remove(K key) {
+        cleanUp();
+        store.remove(storeKey(key, null));
+        return true;
+    }
+
+    @Override
+    public int remove(Filter<K> keyFilter) {
+        cleanUp();
+        final List<Object> removed = new ArrayList<Object>();
+        for (Object storeKey : store.keySet()) {
+            //noinspection unchecked
+            final K key = storeKey instanceof Reference ? ((Reference<K>) storeKey).get() : (K) storeKey;
+            if (key != null && keyFilter.accepts(key)) {
+                removed.add(storeKey);
+            }
+        }
+        for (Object storeKey : removed) {
+            store.remove(storeKey);
+        }
+        return removed.size();
+    }
+
+    @Override
+    public void invalidate() {
+        store.clear();
+        cleanUp();
+    }
+
+    @Override
+    public CacheStats getStats() {
+        final StatsCounter statsCounter = this.statsCounter;
+        return statsCounter == null ? CacheStats.EMPTY : statsCounter.snapshot();
+    }
+
+    /**
+     * @see AbstractCache#setRecordStats(boolean)
+     */
+    public void setRecordStats(boolean recordStats) {
+        statsCounter = recordStats ? new StatsCounter() : null;
+    }
+
+    /**
+     * @return the strength of references to keys
+     */
+    public ReferenceStrength getKeyStrength() {
+        return keyStrength;
+    }
+
+    /**
+     * @return the strength of references to values
+     */
+    public ReferenceStrength getValueStrength() {
+        return valueStrength;
+    }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Cache;
+import com.mmnaseri.couteau.basics.api.CacheStats;
+import com.mmnaseri.couteau.basics.api.Filter;
+import com.mmnaseri.couteau.basics.api.Weigher;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is a thread-safe cache which splits its items across a number of independent {@link ConcurrentCache}
+ * segments, each with its own share of the capacity. Since every segment keeps its own eviction bookkeeping,
+ * writes and reads on keys that fall into different segments never contend with each other.
+ *
+ * Note that since eviction happens per segment, the cache as a whole will start evicting items slightly
+ * before reaching its total capacity if the keys are not evenly distributed. The maximum weight, on the other
+ * hand, is a single budget shared by all segments: once a write takes the combined weight over it, items are
+ * evicted from the other segments first, and from the segment that was written to last.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 11:40 AM)
+ */
+public class SegmentedCache<K, V> implements Cache<K, V> {
+
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private final AbstractCache<K, V>[] segments;
+    private final AtomicLong weight = new AtomicLong();
+    private volatile long maximumWeight = Long.MAX_VALUE;
+    private volatile StatsCounter statsCounter;
+
+    public SegmentedCache() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public SegmentedCache(int capacity) {
+        this(capacity, AbstractCache.RemovePolicy.LEAST_USED_FIRST);
+    }
+
+    public SegmentedCache(int capacity, AbstractCache.RemovePolicy removePolicy) {
+        this(capacity, removePolicy, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Instantiates the cache
+     * @param capacity            the total capacity of the cache
+     * @param removePolicy        the remove policy used by each of the segments
+     * @param concurrencyLevel    the number of segments. This will be rounded up to the nearest power of two,
+     *                            but will not exceed the capacity, so that each segment can hold at least one item.
+     */
+    public SegmentedCache(int capacity, AbstractCache.RemovePolicy removePolicy, int concurrencyLevel) {
+        int size = 1;
+        while (size < concurrencyLevel && size <= capacity / 2) {
+            size <<= 1;
+        }
+        //noinspection unchecked
+        segments = new AbstractCache[size];
+        //the capacity is split so that the shares of the segments add up to it exactly
+        final int share = Math.max(1, capacity / size);
+        final int remainder = capacity > size ? capacity % size : 0;
+        for (int i = 0; i < segments.length; i++) {
+            final int segmentCapacity = share + (i < remainder ? 1 : 0);
+            //a cache only starts evicting once it holds more items than its capacity, so each segment
+            //is given one less than its share, to keep it from holding one item too many
+            segments[i] = new ConcurrentCache<K, V>(segmentCapacity == Integer.MAX_VALUE ? segmentCapacity : segmentCapacity - 1, removePolicy);
+            segments[i].shareWeight(weight);
+        }
+    }
+
+    /**
+     * Determines the segment responsible for the key. The hash code is spread so that keys differing
+     * only in their higher bits do not end up in the same segment.
+     * @param key    the key
+     * @return the index of the segment
+     */
+    private int indexFor(K key) {
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        hash ^= (hash >>> 7) ^ (hash >>> 4);
+        return hash & (segments.length - 1);
+    }
+
+    private AbstractCache<K, V> segmentFor(K key) {
+        return segments[indexFor(key)];
+    }
+
+    /**
+     * Evicts items until the combined weight of the segments is within the maximum weight. The segments
+     * are visited starting with the one after the given segment, so that the given segment is the last to
+     * lose its items.
+     * @param index    the index of the segment that was last written to
+     */
+    private void shrink(int index) {
+        for (int i = 1; i <= segments.length && weight.get() > maximumWeight; i++) {
+            final AbstractCache<K, V> segment = segments[(index + i) & (segments.length - 1)];
+            while (weight.get() > maximumWeight && segment.evictOne()) {
+                //keep evicting from this segment
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return segmentFor(key).contains(key);
+    }
+
+    @Override
+    public boolean write(K key, V value) {
+        final int index = indexFor(key);
+        final AbstractCache<K, V> segment = segments[index];
+        if (!segment.write(key, value)) {
+            return false;
+        }
+        if (weight.get() > maximumWeight) {
+            shrink(index);
+        }
+        return segment.contains(key);
+    }
+
+    @Override
+    public V read(K key) {
+        return segmentFor(key).read(key);
+    }
+
+    @Override
+    public Map<K, V> readAll(Collection<K> keys) {
+        final Map<K, V> items = new HashMap<K, V>();
+        for (K key : keys) {
+            final V value = read(key);
+            if (value != null) {
+                items.put(key, value);
+            }
+        }
+        return items;
+    }
+
+    @Override
+    public boolean writeAll(Map<K, V> items) {
+        boolean written = true;
+        for (Map.Entry<K, V> item : items.entrySet()) {
+            written &= write(item.getKey(), item.getValue());
+        }
+        return written;
+    }
+
+    @Override
+    public boolean remove(K key) {
+        return segmentFor(key).remove(key);
+    }
+
+    @Override
+    public int remove(Filter<K> keyFilter) {
+        int removed = 0;
+        for (AbstractCache<K, V> segment : segments) {
+            removed += segment.remove(keyFilter);
+        }
+        return removed;
+    }
+
+    @Override
+    public void invalidate() {
+        for (AbstractCache<K, V> segment : segments) {
+            segment.invalidate();
+        }
+    }
+
+    @Override
+    public CacheStats getStats() {
+        final StatsCounter statsCounter = this.statsCounter;
+        return statsCounter == null ? CacheStats.EMPTY : statsCounter.snapshot();
+    }
+
+    /**
+     * Turns recording of statistics on or off. All segments record into the same counter.
+     * @see AbstractCache#setRecordStats(boolean)
+     */
+    public void setRecordStats(boolean recordStats) {
+        final StatsCounter statsCounter = recordStats ? new StatsCounter() : null;
+        for (AbstractCache<K, V> segment : segments) {
+            segment.setStatsCounter(statsCounter);
+        }
+        this.statsCounter = statsCounter;
+    }
+
+    /**
+     * @see AbstractCache#cleanUp()
+     */
+    public void cleanUp() {
+        for (AbstractCache<K, V> segment : segments) {
+            segment.cleanUp();
+        }
+    }
+
+    /**
+     * Bounds the cache by the total weight of its items. The weight is shared by all segments, so any
+     * item that is not heavier than the maximum weight on its own can be cached.
+     * @see AbstractCache#setMaximumWeight(long, Weigher)
+     */
+    public void setMaximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+        this.maximumWeight = maximumWeight;
+        for (AbstractCache<K, V> segment : segments) {
+            segment.setMaximumWeight(maximumWeight, weigher);
+        }
+        shrink(segments.length - 1);
+    }
+
+    /**
+     * @return the total weight of the items currently in the cache. While writes are in progress, this
+     * may briefly be over the maximum weight.
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    /**
+     * @see AbstractCache#setExpireAfterWrite(long, TimeUnit)
+     */
+    public void setExpireAfterWrite(long duration, TimeUnit unit) {
+        for (AbstractCache<K, V> segment : segments) {
+            segment.setExpireAfterWrite(duration, unit);
+        }
+    }
+
+    /**
+     * @see AbstractCache#setExpireAfterAccess(long, TimeUnit)
+     */
+    public void setExpireAfterAccess(long duration, TimeUnit unit) {
+        for (AbstractCache<K, V> segment : segments) {
+            segment.setExpireAfterAccess(duration, unit);
+        }
+    }
+
+}
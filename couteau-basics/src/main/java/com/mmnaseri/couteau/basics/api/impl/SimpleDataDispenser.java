@@ -34,11 +34,17 @@ import com.mmnaseri.couteau.basics.api.Cache;
  */
 public abstract class SimpleDataDispenser<K, V> extends CachingDataDispenser<K, V> {
 
-    private final Cache<K,V> cache = new SimpleCache<K, V>();
+    private final SimpleCache<K,V> cache = new SimpleCache<K, V>();
 
     @Override
     protected Cache<K, V> getCache() {
         return cache;
     }
 
+    @Override
+    public void setRecordStats(boolean recordStats) {
+        super.setRecordStats(recordStats);
+        cache.setRecordStats(recordStats);
+    }
+
 }
@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.CacheStats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class accumulates cache statistics. Each counter is striped across a number of cells, picked by
+ * the identity of the recording thread and padded apart from each other, so that threads recording at the
+ * same time rarely contend on the same cell. Cells are only summed up when a snapshot is taken.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 2:55 PM)
+ */
+public class StatsCounter {
+
+    private static final int HITS = 0;
+    private static final int MISSES = 1;
+    private static final int LOAD_SUCCESSES = 2;
+    private static final int LOAD_FAILURES = 3;
+    private static final int LOAD_TIME = 4;
+    private static final int EVICTIONS = 5;
+    /**
+     * The number of cells each stripe occupies; this keeps each stripe on its own cache line
+     */
+    private static final int STRIDE = 8;
+    private static final int MAXIMUM_STRIPES = 64;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public StatsCounter() {
+        int stripes = 1;
+        while (stripes < Runtime.getRuntime().availableProcessors() && stripes < MAXIMUM_STRIPES) {
+            stripes <<= 1;
+        }
+        mask = stripes - 1;
+        cells = new AtomicLongArray(stripes * STRIDE);
+    }
+
+    private void add(int counter, long value) {
+        final int stripe = (int) Thread.currentThread().getId() & mask;
+        cells.addAndGet(stripe * STRIDE + counter, value);
+    }
+
+    private long sum(int counter) {
+        long sum = 0;
+        for (int i = counter; i < cells.length(); i += STRIDE) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    public void recordHit() {
+        add(HITS, 1);
+    }
+
+    public void recordMiss() {
+        add(MISSES, 1);
+    }
+
+    /**
+     * @param loadTime    the time in nanoseconds it took to produce the value
+     */
+    public void recordLoadSuccess(long loadTime) {
+        add(LOAD_SUCCESSES, 1);
+        add(LOAD_TIME, loadTime);
+    }
+
+    /**
+     * @param loadTime    the time in nanoseconds spent before production failed
+     */
+    public void recordLoadFailure(long loadTime) {
+        add(LOAD_FAILURES, 1);
+        add(LOAD_TIME, loadTime);
+    }
+
+    public void recordEviction() {
+        add(EVICTIONS, 1);
+    }
+
+    /**
+     * @return a snapshot of the values recorded so far. Since recording is not halted while the
+     * snapshot is taken, the values may not reflect a single point in time.
+     */
+    public CacheStats snapshot() {
+        return new CacheStats(sum(HITS), sum(MISSES), sum(LOAD_SUCCESSES), sum(LOAD_FAILURES), sum(LOAD_TIME), sum(EVICTIONS));
+    }
+
+}
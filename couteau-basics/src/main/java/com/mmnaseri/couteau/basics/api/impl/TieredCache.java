@@ -0,0 +1,185 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Cache;
+import com.mmnaseri.couteau.basics.api.CacheStats;
+import com.mmnaseri.couteau.basics.api.Filter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This cache puts a fast, usually in-memory, cache in front of a slower but larger one, such as a
+ * {@link MappedFileCache}. Items are written through to both levels, and items only found in the
+ * second level are copied into the first level once they are read.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 8:30 PM)
+ */
+public class TieredCache<K, V> implements Cache<K, V> {
+
+    private final Cache<K, V> first;
+    private final Cache<K, V> second;
+    private volatile StatsCounter statsCounter;
+
+    /**
+     * @param first     the first level, which is consulted first
+     * @param second    the second level, which backs the first
+     */
+    public TieredCache(Cache<K, V> first, Cache<K, V> second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public boolean contains(K key) {
+        return first.contains(key) || second.contains(key);
+    }
+
+    /**
+     * Writes the item to both levels
+     * @return {@code true} if the item could be written to at least one of the levels
+     */
+    @Override
+    public boolean write(K key, V value) {
+        final boolean written = second.write(key, value);
+        return first.write(key, value) || written;
+    }
+
+    @Override
+    public V read(K key) {
+        final StatsCounter statsCounter = this.statsCounter;
+        V value = first.read(key);
+        if (value == null) {
+            value = second.read(key);
+            if (value != null) {
+                first.write(key, value);
+            }
+        }
+        if (statsCounter != null) {
+            if (value != null) {
+                statsCounter.recordHit();
+            } else {
+                statsCounter.recordMiss();
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Map<K, V> readAll(Collection<K> keys) {
+        final StatsCounter statsCounter = this.statsCounter;
+        final Map<K, V> items = first.readAll(keys);
+        final List<K> missing = new ArrayList<K>();
+        for (K key : keys) {
+            if (!items.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            final Map<K, V> found = second.readAll(missing);
+            first.writeAll(found);
+            items.putAll(found);
+        }
+        if (statsCounter != null) {
+            for (K key : keys) {
+                if (items.containsKey(key)) {
+                    statsCounter.recordHit();
+                } else {
+                    statsCounter.recordMiss();
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Writes the items to both levels
+     * @return {@code true} if either level accepted all of the items
+     */
+    @Override
+    public boolean writeAll(Map<K, V> items) {
+        final boolean written = second.writeAll(items);
+        return first.writeAll(items) || written;
+    }
+
+    @Override
+    public boolean remove(K key) {
+        final boolean removed = second.remove(key);
+        return first.remove(key) && removed;
+    }
+
+    /**
+     * @return the number of items removed from the second level, which holds all items written
+     * through this cache
+     */
+    @Override
+    public int remove(Filter<K> keyFilter) {
+        first.remove(keyFilter);
+        return second.remove(keyFilter);
+    }
+
+    @Override
+    public void invalidate() {
+        second.invalidate();
+        first.invalidate();
+    }
+
+    /**
+     * @return the statistics of this cache as a whole, with evictions taken from the second level
+     */
+    @Override
+    public CacheStats getStats() {
+        final StatsCounter statsCounter = this.statsCounter;
+        if (statsCounter == null) {
+            return CacheStats.EMPTY;
+        }
+        return statsCounter.snapshot().plus(new CacheStats(0, 0, 0, 0, 0, second.getStats().getEvictionCount()));
+    }
+
+    /**
+     * @see AbstractCache#setRecordStats(boolean)
+     */
+    public void setRecordStats(boolean recordStats) {
+        statsCounter = recordStats ? new StatsCounter() : null;
+    }
+
+    /**
+     * @return the first level
+     */
+    public Cache<K, V> getFirst() {
+        return first;
+    }
+
+    /**
+     * @return the second level
+     */
+    public Cache<K, V> getSecond() {
+        return second;
+    }
+
+}
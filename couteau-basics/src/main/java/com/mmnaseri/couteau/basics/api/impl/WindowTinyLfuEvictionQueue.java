@@ -0,0 +1,163 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+/**
+ * This eviction queue implements the W-TinyLFU policy. New items enter a small window which is ordered by
+ * access, and items pushed out of the window go on probation in the main region. Items on probation that
+ * are accessed again are promoted to the protected part of the main region, which holds most of the items.
+ *
+ * When an item has to go, the newest item on probation is pitted against the oldest one, and the one seen
+ * less often according to a {@link FrequencySketch} is let go. This way, keys that are only seen once -- as
+ * happens during scans -- do not flush out the hot items, while the window still allows for bursts of
+ * recently popular items.
+ *
+ * @see AbstractCache.RemovePolicy#WINDOW_TINY_LFU
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 5:35 PM)
+ */
+class WindowTinyLfuEvictionQueue<V> implements EvictionQueue<V> {
+
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+    private static final int WINDOW_PERCENTAGE = 1;
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private final AbstractCache.CacheData<V> window;
+    private final AbstractCache.CacheData<V> probation;
+    private final AbstractCache.CacheData<V> protectedItems;
+    private final FrequencySketch sketch;
+    private final long maximumWindowSize;
+    private final long maximumProtectedSize;
+    private long windowSize;
+    private long protectedSize;
+
+    /**
+     * @param capacity    the capacity of the cache
+     */
+    WindowTinyLfuEvictionQueue(int capacity) {
+        window = sentinel();
+        probation = sentinel();
+        protectedItems = sentinel();
+        sketch = new FrequencySketch(capacity);
+        maximumWindowSize = Math.max(1, (long) capacity * WINDOW_PERCENTAGE / 100);
+        maximumProtectedSize = Math.max(1, (capacity - maximumWindowSize) * PROTECTED_PERCENTAGE / 100);
+    }
+
+    private static <V> AbstractCache.CacheData<V> sentinel() {
+        final AbstractCache.CacheData<V> sentinel = new AbstractCache.CacheData<V>(null, null);
+        sentinel.next = sentinel;
+        sentinel.previous = sentinel;
+        return sentinel;
+    }
+
+    private static <V> AbstractCache.CacheData<V> first(AbstractCache.CacheData<V> sentinel) {
+        return sentinel.next == sentinel ? null : sentinel.next;
+    }
+
+    private static <V> AbstractCache.CacheData<V> last(AbstractCache.CacheData<V> sentinel) {
+        return sentinel.previous == sentinel ? null : sentinel.previous;
+    }
+
+    private void moveTo(AbstractCache.CacheData<V> data, int region) {
+        remove(data);
+        if (region == WINDOW) {
+            data.linkBefore(window);
+            windowSize++;
+        } else if (region == PROTECTED) {
+            data.linkBefore(protectedItems);
+            protectedSize++;
+        } else {
+            data.linkBefore(probation);
+        }
+        data.region = region;
+    }
+
+    @Override
+    public void add(AbstractCache.CacheData<V> data) {
+        sketch.increment(data.getKey());
+        moveTo(data, WINDOW);
+        while (windowSize > maximumWindowSize) {
+            moveTo(first(window), PROBATION);
+        }
+    }
+
+    @Override
+    public void access(AbstractCache.CacheData<V> data) {
+        if (!data.isLinked()) {
+            return;
+        }
+        sketch.increment(data.getKey());
+        if (data.region == WINDOW) {
+            moveTo(data, WINDOW);
+            return;
+        }
+        moveTo(data, PROTECTED);
+        while (protectedSize > maximumProtectedSize) {
+            moveTo(first(protectedItems), PROBATION);
+        }
+    }
+
+    @Override
+    public void remove(AbstractCache.CacheData<V> data) {
+        if (!data.isLinked()) {
+            return;
+        }
+        data.unlink();
+        if (data.region == WINDOW) {
+            windowSize--;
+        } else if (data.region == PROTECTED) {
+            protectedSize--;
+        }
+        data.region = 0;
+    }
+
+    @Override
+    public AbstractCache.CacheData<V> candidate() {
+        final AbstractCache.CacheData<V> victim = first(probation);
+        final AbstractCache.CacheData<V> candidate = last(probation);
+        if (victim == null) {
+            final AbstractCache.CacheData<V> oldestProtected = first(protectedItems);
+            return oldestProtected != null ? oldestProtected : first(window);
+        }
+        if (candidate == victim || sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+            return victim;
+        }
+        return candidate;
+    }
+
+    @Override
+    public void clear() {
+        window.next = window;
+        window.previous = window;
+        probation.next = probation;
+        probation.previous = probation;
+        protectedItems.next = protectedItems;
+        protectedItems.previous = protectedItems;
+        windowSize = 0;
+        protectedSize = 0;
+    }
+
+}
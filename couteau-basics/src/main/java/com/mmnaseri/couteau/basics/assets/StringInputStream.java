@@ -25,29 +25,123 @@ package com.mmnaseri.couteau.basics.assets;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 
 /**
  * This class allows for redirection of a String byte array to be used as
  * an input stream.
  *
- * The point of operation is very simple, as it calls to {@link String#getBytes()}.
+ * The characters are encoded lazily, one chunk at a time, as they are read, so that the input is never
+ * duplicated as a whole in its encoded form. Characters that cannot be encoded are replaced by the
+ * charset's replacement bytes, as is done by {@link String#getBytes(Charset)}.
  *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/7/30, 0:03)
  */
 public class StringInputStream extends InputStream {
 
-    private final byte[] input;
-    private int cursor;
+    private static final int CHUNK_SIZE = 8192;
 
+    private final CharBuffer input;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer chunk;
+    private boolean encoded = false;
+    private boolean flushed = false;
+
+    /**
+     * Instantiates the stream, encoding the input with the platform's default charset
+     * @param input    the input
+     */
     public StringInputStream(String input) {
-        this.input = input.getBytes();
-        this.cursor = 0;
+        this(input, Charset.defaultCharset());
+    }
+
+    /**
+     * Instantiates the stream
+     * @param input      the characters to be read
+     * @param charset    the charset with which the characters are to be encoded
+     */
+    public StringInputStream(CharSequence input, Charset charset) {
+        this.input = CharBuffer.wrap(input);
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final double expected = Math.ceil(input.length() * (double) encoder.maxBytesPerChar());
+        this.chunk = ByteBuffer.allocate((int) Math.max(16, Math.min(CHUNK_SIZE, expected)));
+        this.chunk.flip();
+    }
+
+    /**
+     * Makes sure there are encoded bytes ready to be read, encoding the next chunk of the input if necessary
+     * @return {@code false} if the end of the stream has been reached
+     */
+    private boolean fill() throws IOException {
+        while (!chunk.hasRemaining()) {
+            if (flushed) {
+                return false;
+            }
+            chunk.clear();
+            if (!encoded) {
+                final CoderResult result = encoder.encode(input, chunk, true);
+                if (result.isUnderflow()) {
+                    encoded = true;
+                } else if (result.isError()) {
+                    result.throwException();
+                }
+            }
+            if (encoded && encoder.flush(chunk).isUnderflow()) {
+                flushed = true;
+            }
+            chunk.flip();
+        }
+        return true;
     }
 
     @Override
     public int read() throws IOException {
-        return cursor < input.length ? input[cursor ++] : -1;
+        return fill() ? chunk.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || length > buffer.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length == 0) {
+            return 0;
+        }
+        int read = 0;
+        while (read < length && fill()) {
+            final int count = Math.min(chunk.remaining(), length - read);
+            chunk.get(buffer, offset + read, count);
+            read += count;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count && fill()) {
+            final int step = (int) Math.min(chunk.remaining(), count - skipped);
+            chunk.position(chunk.position() + step);
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    /**
+     * @return the number of bytes that have already been encoded and are waiting to be read. This only
+     * reaches zero once the end of the stream has been reached.
+     */
+    @Override
+    public int available() throws IOException {
+        return fill() ? chunk.remaining() : 0;
     }
 
 }
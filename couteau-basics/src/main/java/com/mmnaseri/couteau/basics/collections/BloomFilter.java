@@ -0,0 +1,196 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A scalable Bloom filter, i.e., a probabilistic set that can tell for certain that an item has never been added
+ * to it, while claiming that an item might have been added with a bounded rate of false positives.
+ *
+ * The filter starts out sized for the expected number of items. Once that many items have been added, a new,
+ * larger stage is appended with a tighter false positive rate, so that the overall rate stays within the requested
+ * bound no matter how many items are added (following Almeida et al., "Scalable Bloom Filters").
+ *
+ * Items are hashed through their {@link Object#hashCode()}, so items with equal hash codes are indistinguishable
+ * to the filter. Items cannot be removed from the filter. Looking items up is safe from any thread; adding items
+ * and clearing the filter are serialized.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 7:00 PM)
+ */
+public class BloomFilter<E> {
+
+    /**
+     * The factor by which each stage's capacity is larger than the previous one's
+     */
+    private static final int GROWTH_FACTOR = 2;
+
+    /**
+     * The factor by which each stage's false positive rate is smaller than the previous one's. The overall rate
+     * is then bounded by {@code rate / (1 - TIGHTENING_RATIO)}, which is why the first stage gets half the rate.
+     */
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private static class Stage {
+
+        private final AtomicLongArray bits;
+        private final int bitCount;
+        private final int hashCount;
+        private final int capacity;
+        private int count = 0;
+
+        private Stage(int capacity, double falsePositiveRate) {
+            final double ln2 = Math.log(2);
+            this.capacity = capacity;
+            this.bitCount = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2))));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * ln2));
+            this.bits = new AtomicLongArray((bitCount + 63) >>> 6);
+        }
+
+        private int index(long hash, int i) {
+            final int combined = (int) hash + i * (int) (hash >>> 32);
+            return (combined & Integer.MAX_VALUE) % bitCount;
+        }
+
+        private boolean mightContain(long hash) {
+            for (int i = 0; i < hashCount; i++) {
+                final int index = index(hash, i);
+                if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void add(long hash) {
+            for (int i = 0; i < hashCount; i++) {
+                final int index = index(hash, i);
+                final long mask = 1L << index;
+                long word;
+                do {
+                    word = bits.get(index >>> 6);
+                } while ((word & mask) == 0 && !bits.compareAndSet(index >>> 6, word, word | mask));
+            }
+            count ++;
+        }
+
+    }
+
+    private final int expectedItems;
+    private final double falsePositiveRate;
+    private volatile Stage[] stages;
+
+    public BloomFilter() {
+        this(1024, 0.01);
+    }
+
+    /**
+     * Instantiates the filter
+     * @param expectedItems        the number of items the first stage of the filter is sized for
+     * @param falsePositiveRate    the largest acceptable rate of false positives
+     */
+    public BloomFilter(int expectedItems, double falsePositiveRate) {
+        if (expectedItems <= 0) {
+            throw new IllegalArgumentException("Expected number of items must be positive: " + expectedItems);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between zero and one: " + falsePositiveRate);
+        }
+        this.expectedItems = expectedItems;
+        this.falsePositiveRate = falsePositiveRate;
+        clear();
+    }
+
+    private static long hash(Object item) {
+        long hash = item == null ? 0 : item.hashCode();
+        hash *= 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * @param item    the item
+     * @return {@code false} if the item has definitely never been added to the filter
+     */
+    public boolean mightContain(E item) {
+        final long hash = hash(item);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the item to the filter
+     * @param item    the item
+     * @return {@code true} if the item was definitely not in the filter before
+     */
+    public synchronized boolean add(E item) {
+        final long hash = hash(item);
+        final Stage[] stages = this.stages;
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return false;
+            }
+        }
+        Stage last = stages[stages.length - 1];
+        if (last.count >= last.capacity) {
+            final double rate = falsePositiveRate * (1 - TIGHTENING_RATIO) * Math.pow(TIGHTENING_RATIO, stages.length);
+            last = new Stage((int) Math.min(Integer.MAX_VALUE / 64, (long) last.capacity * GROWTH_FACTOR), rate);
+            final Stage[] grown = new Stage[stages.length + 1];
+            System.arraycopy(stages, 0, grown, 0, stages.length);
+            grown[stages.length] = last;
+            last.add(hash);
+            this.stages = grown;
+        } else {
+            last.add(hash);
+        }
+        return true;
+    }
+
+    /**
+     * Forgets all items, going back to a single stage sized for the expected number of items
+     */
+    public synchronized void clear() {
+        stages = new Stage[]{new Stage(expectedItems, falsePositiveRate * (1 - TIGHTENING_RATIO))};
+    }
+
+    /**
+     * @return the number of bits used by the filter
+     */
+    public long getBitCount() {
+        long count = 0;
+        for (Stage stage : stages) {
+            count += stage.bitCount;
+        }
+        return count;
+    }
+
+}
@@ -25,16 +25,32 @@ package com.mmnaseri.couteau.basics.collections;
 
 import com.mmnaseri.couteau.basics.api.Filter;
 import com.mmnaseri.couteau.basics.api.Processor;
+import com.mmnaseri.couteau.basics.api.ToDoubleTransformer;
+import com.mmnaseri.couteau.basics.api.ToIntTransformer;
+import com.mmnaseri.couteau.basics.api.ToLongTransformer;
 import com.mmnaseri.couteau.basics.api.Transformer;
 import com.mmnaseri.couteau.basics.api.impl.EqualityFilter;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The collection wrapper class is designed to wrap a collection and perform fluently designated operations on it.
  * It will make chained operations on the collection so much easier.
  *
+ * Through {@link #parallel()}, the wrapper can be asked to split the work done by {@link #each(Processor)},
+ * {@link #keep(Filter[])}, {@link #drop(Filter[])}, {@link #transform(Transformer)}, {@link #count(Filter)}
+ * and {@link #map(Transformer)} across a pool of threads, merging the results back in order. Wrappers produced
+ * from a parallel wrapper are parallel as well. Collections smaller than {@link #PARALLEL_THRESHOLD} are always
+ * processed on the calling thread.
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (6/27/13, 2:57 PM)
  */
@@ -57,32 +73,260 @@ public class CollectionWrapper<I> {
      * @return the wrapped to the collection
      */
     public static <I> CollectionWrapper<I> with(Collection<I> items) {
-        return new CollectionWrapper<I>(items);
+        return new CollectionWrapper<I>(new ArrayList<I>(items), null);
     }
-    
-    private final List<I> items;
 
-    private CollectionWrapper(Collection<I> items) {
-        this.items = new ArrayList<I>(items);
+    /**
+     * Wraps the given items without copying them, evaluating all chained operations item by item once a terminal
+     * operation is called. Except for sorting and taking items relative to the end, operations on the returned
+     * wrapper run in constant memory, so this can be used over sources too large to be held in memory.
+     * @param items    the source of the items
+     * @param <I>      the type of items
+     * @return the streaming wrapper
+     */
+    public static <I> LazyCollectionWrapper<I> stream(Iterable<I> items) {
+        return new LazyCollectionWrapper<I>(items);
     }
 
     /**
-     * Will sort all "comparable" items in the wrapped collection
-     * @return the wrapper for sorted items
+     * Wraps the given iterator as with {@link #stream(Iterable)}. Since the iterator can only be traversed once,
+     * the returned wrapper will only support a single terminal operation.
+     * @param items    the iterator over the items
+     * @param <I>      the type of items
+     * @return the streaming wrapper
      */
-    public CollectionWrapper<I> sort() {
-        return sort(new Comparator<I>() {
+    public static <I> LazyCollectionWrapper<I> stream(final Iterator<I> items) {
+        return stream(new Iterable<I>() {
+            private boolean consumed = false;
+
             @Override
-            public int compare(I o1, I o2) {
-                if (o1 instanceof Comparable && o2 instanceof Comparable) {
-                    //noinspection unchecked
-                    return ((Comparable) o1).compareTo(o2);
+            public Iterator<I> iterator() {
+                if (consumed) {
+                    throw new IllegalStateException("Items from an iterator can only be traversed once");
                 }
-                return 0;
+                consumed = true;
+                return items;
             }
         });
     }
 
+    /**
+     * The number of items below which operations are never split across threads
+     */
+    public static final int PARALLEL_THRESHOLD = 1024;
+
+    private static final int MINIMUM_CHUNK_SIZE = PARALLEL_THRESHOLD / 4;
+
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Compares "comparable" items in their natural order, considering all other items to be equal
+     */
+    static final Comparator<Object> NATURAL_ORDER = new Comparator<Object>() {
+        @Override
+        public int compare(Object o1, Object o2) {
+            if (o1 instanceof Comparable && o2 instanceof Comparable) {
+                //noinspection unchecked
+                return ((Comparable) o1).compareTo(o2);
+            }
+            return 0;
+        }
+    };
+
+    /**
+     * Threads of the default pool used for parallel operations
+     */
+    private static class ParallelWorker extends Thread {
+
+        private ParallelWorker(Runnable target, String name) {
+            super(target, name);
+            setDaemon(true);
+        }
+
+    }
+
+    /**
+     * Holds the default pool, so that it is only created once a parallel operation is requested
+     */
+    private static class DefaultExecutor {
+
+        private static final ExecutorService INSTANCE = Executors.newFixedThreadPool(PARALLELISM, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new ParallelWorker(runnable, "collection-wrapper-" + count.incrementAndGet());
+            }
+        });
+
+    }
+
+    /**
+     * Processes the items in the range {@code [from, to)}
+     */
+    private interface Chunk<R> {
+
+        R run(int from, int to);
+
+    }
+
+    private final List<I> items;
+    private final ExecutorService executor;
+
+    /**
+     * Wraps the given list, which must not be modified afterwards, without copying it
+     * @param items       the items
+     * @param executor    the executor for parallel operations, or {@code null} if they should run sequentially
+     */
+    private CollectionWrapper(List<I> items, ExecutorService executor) {
+        this.items = items;
+        this.executor = executor;
+    }
+
+    private <O> CollectionWrapper<O> wrap(List<O> items) {
+        return new CollectionWrapper<O>(items, executor);
+    }
+
+    static <I> boolean matches(I item, Filter<? super I>[] filters) {
+        for (Filter<? super I> filter : filters) {
+            if (filter.accepts(item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs the chunk over all the items, splitting them into several chunks run on the executor if this
+     * wrapper is parallel and there are enough items.
+     * @param chunk    the chunk
+     * @param <R>      the type of the result of each chunk
+     * @return the results of the chunks, in the order of the items they covered
+     */
+    private <R> List<R> split(Chunk<R> chunk) {
+        final int size = items.size();
+        if (executor == null || size < PARALLEL_THRESHOLD || Thread.currentThread() instanceof ParallelWorker) {
+            return Collections.singletonList(chunk.run(0, size));
+        }
+        final int chunks = Math.max(2, Math.min(PARALLELISM * 4, size / MINIMUM_CHUNK_SIZE));
+        final int step = (size + chunks - 1) / chunks;
+        final List<Future<R>> futures = new ArrayList<Future<R>>(chunks);
+        final List<R> results = new ArrayList<R>(chunks);
+        try {
+            for (int from = step; from < size; from += step) {
+                futures.add(executor.submit(new ChunkCallable<R>(chunk, from, Math.min(size, from + step))));
+            }
+            //the calling thread takes the first chunk itself
+            results.add(chunk.run(0, step));
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing items in parallel", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Failed to process items in parallel", cause);
+        } finally {
+            if (results.size() <= futures.size()) {
+                for (Future<R> future : futures) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+
+    private static class ChunkCallable<R> implements Callable<R> {
+
+        private final Chunk<R> chunk;
+        private final int from;
+        private final int to;
+
+        private ChunkCallable(Chunk<R> chunk, int from, int to) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public R call() throws Exception {
+            return chunk.run(from, to);
+        }
+
+    }
+
+    private static <O> List<O> concat(List<List<O>> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        int size = 0;
+        for (List<O> list : lists) {
+            size += list.size();
+        }
+        final List<O> result = new ArrayList<O>(size);
+        for (List<O> list : lists) {
+            result.addAll(list);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a wrapper for the same items, whose operations are split across a shared pool of daemon threads.
+     * Processors, filters and transformers given to a parallel wrapper must be safe to call from several threads.
+     * @return the parallel wrapper
+     */
+    public CollectionWrapper<I> parallel() {
+        return parallel(DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * Returns a wrapper for the same items, whose operations are split across the given executor. Operations
+     * will wait for the tasks they submit, so the executor should not be one whose threads use this wrapper.
+     * @param executor    the executor
+     * @return the parallel wrapper
+     */
+    public CollectionWrapper<I> parallel(ExecutorService executor) {
+        return new CollectionWrapper<I>(items, executor);
+    }
+
+    /**
+     * @return a wrapper for the same items, whose operations all run on the calling thread
+     */
+    public CollectionWrapper<I> sequential() {
+        return executor == null ? this : new CollectionWrapper<I>(items, null);
+    }
+
+    /**
+     * @return {@code true} if operations on this wrapper may be split across several threads
+     */
+    public boolean isParallel() {
+        return executor != null;
+    }
+
+    /**
+     * Returns a lazy view of the items in this wrapper, on which chained operations are only recorded and
+     * then performed in a single pass once a terminal operation is called.
+     * @return the lazy wrapper
+     */
+    public LazyCollectionWrapper<I> lazy() {
+        return new LazyCollectionWrapper<I>(items);
+    }
+
+    /**
+     * Will sort all "comparable" items in the wrapped collection
+     * @return the wrapper for sorted items
+     */
+    public CollectionWrapper<I> sort() {
+        return sort(NATURAL_ORDER);
+    }
+
     /**
      * Sorts all the items in the wrapped collection based on the given comparator
      * @param comparator    the comparator for wrapped items
@@ -91,7 +335,7 @@ public class CollectionWrapper<I> {
     public CollectionWrapper<I> sort(Comparator<? super I> comparator) {
         final ArrayList<I> sorted = new ArrayList<I>(items);
         Collections.sort(sorted, comparator);
-        return new CollectionWrapper<I>(sorted);
+        return wrap(sorted);
     }
 
     /**
@@ -99,10 +343,16 @@ public class CollectionWrapper<I> {
      * @param processor    the processor
      * @return the wrapper again
      */
-    public CollectionWrapper<I> each(Processor<? super I> processor) {
-        for (I item : items) {
-            processor.process(item);
-        }
+    public CollectionWrapper<I> each(final Processor<? super I> processor) {
+        split(new Chunk<Void>() {
+            @Override
+            public Void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    processor.process(items.get(i));
+                }
+                return null;
+            }
+        });
         return this;
     }
 
@@ -112,21 +362,20 @@ public class CollectionWrapper<I> {
      *                   If any one filter accepts the item, the item will be kept.
      * @return the wrapper for all accepted items
      */
-    public CollectionWrapper<I> keep(Filter<? super I>... filters) {
-        final ArrayList<I> filtered = new ArrayList<I>();
-        for (I item : items) {
-            boolean kept = false;
-            for (Filter<? super I> filter : filters) {
-                if (filter.accepts(item)) {
-                    kept = true;
-                    break;
+    public CollectionWrapper<I> keep(final Filter<? super I>... filters) {
+        return wrap(concat(split(new Chunk<List<I>>() {
+            @Override
+            public List<I> run(int from, int to) {
+                final ArrayList<I> filtered = new ArrayList<I>();
+                for (int i = from; i < to; i++) {
+                    final I item = items.get(i);
+                    if (matches(item, filters)) {
+                        filtered.add(item);
+                    }
                 }
+                return filtered;
             }
-            if (kept) {
-                filtered.add(item);
-            }
-        }
-        return new CollectionWrapper<I>(filtered);
+        })));
     }
 
     /**
@@ -135,21 +384,20 @@ public class CollectionWrapper<I> {
      *                   If any single filter accepts the item, it will drop.
      * @return the wrapper for all accepted items
      */
-    public CollectionWrapper<I> drop(Filter<? super I>... filters) {
-        final ArrayList<I> filtered = new ArrayList<I>();
-        for (I item : items) {
-            boolean dropped = false;
-            for (Filter<? super I> filter : filters) {
-                if (filter.accepts(item)) {
-                    dropped = true;
-                    break;
+    public CollectionWrapper<I> drop(final Filter<? super I>... filters) {
+        return wrap(concat(split(new Chunk<List<I>>() {
+            @Override
+            public List<I> run(int from, int to) {
+                final ArrayList<I> filtered = new ArrayList<I>();
+                for (int i = from; i < to; i++) {
+                    final I item = items.get(i);
+                    if (!matches(item, filters)) {
+                        filtered.add(item);
+                    }
                 }
+                return filtered;
             }
-            if (!dropped) {
-                filtered.add(item);
-            }
-        }
-        return new CollectionWrapper<I>(filtered);
+        })));
     }
 
     /**
@@ -158,18 +406,34 @@ public class CollectionWrapper<I> {
      * @param <O>       the type of output objects
      * @return the <em>newly instantiated</em> wrapper for the transformer's output
      */
-    public <O> CollectionWrapper<O> transform(Transformer<? super I, O> transformer) {
-        final List<O> result = new ArrayList<O>();
-        for (I item : items) {
-            result.add(transformer.map(item));
-        }
-        return new CollectionWrapper<O>(result);
+    public <O> CollectionWrapper<O> transform(final Transformer<? super I, O> transformer) {
+        return wrap(concat(split(new Chunk<List<O>>() {
+            @Override
+            public List<O> run(int from, int to) {
+                final List<O> result = new ArrayList<O>(to - from);
+                for (int i = from; i < to; i++) {
+                    result.add(transformer.map(items.get(i)));
+                }
+                return result;
+            }
+        })));
     }
 
-    public <O> Map<I, O> map(Transformer<? super I, O> transformer) {
-        final HashMap<I, O> map = new HashMap<I, O>();
-        for (I item : items) {
-            map.put(item, transformer.map(item));
+    public <O> Map<I, O> map(final Transformer<? super I, O> transformer) {
+        final List<HashMap<I, O>> maps = split(new Chunk<HashMap<I, O>>() {
+            @Override
+            public HashMap<I, O> run(int from, int to) {
+                final HashMap<I, O> map = new HashMap<I, O>();
+                for (int i = from; i < to; i++) {
+                    final I item = items.get(i);
+                    map.put(item, transformer.map(item));
+                }
+                return map;
+            }
+        });
+        final HashMap<I, O> map = maps.get(0);
+        for (int i = 1; i < maps.size(); i++) {
+            map.putAll(maps.get(i));
         }
         return map;
     }
@@ -181,7 +445,7 @@ public class CollectionWrapper<I> {
      * @return the wrapper
      */
     public CollectionWrapper<Collection<I>> expand(Transformer<Collection<I>, Collection<Collection<I>>> expander) {
-        return new CollectionWrapper<Collection<I>>(expander.map(new ArrayList<I>(items)));
+        return wrap(new ArrayList<Collection<I>>(expander.map(new ArrayList<I>(items))));
     }
 
     /**
@@ -191,7 +455,7 @@ public class CollectionWrapper<I> {
      * @return the wrapper
      */
     public CollectionWrapper<I> all(Transformer<Collection<I>, Collection<I>> transformer) {
-        return new CollectionWrapper<I>(transformer.map(new ArrayList<I>(items)));
+        return wrap(new ArrayList<I>(transformer.map(new ArrayList<I>(items))));
     }
 
     /**
@@ -236,7 +500,7 @@ public class CollectionWrapper<I> {
      * @return a wrapped version of the collection, save the very first item
      */
     public CollectionWrapper<I> rest() {
-        return new CollectionWrapper<I>(items.subList(1, items.size()));
+        return wrap(new ArrayList<I>(items.subList(1, items.size())));
     }
 
     /**
@@ -275,7 +539,7 @@ public class CollectionWrapper<I> {
     public CollectionWrapper<I> add(Collection<I> items) {
         final ArrayList<I> list = new ArrayList<I>(this.items);
         list.addAll(items);
-        return new CollectionWrapper<I>(list);
+        return wrap(list);
     }
 
     /**
@@ -326,7 +590,7 @@ public class CollectionWrapper<I> {
         final ArrayList<Collection<I>> list = new ArrayList<Collection<I>>();
         list.add(accepted);
         list.add(rejected);
-        return new CollectionWrapper<Collection<I>>(list);
+        return wrap(list);
     }
 
     /**
@@ -342,7 +606,7 @@ public class CollectionWrapper<I> {
             }
             list.add(item);
         }
-        return new CollectionWrapper<I>(list);
+        return wrap(list);
     }
 
     /**
@@ -361,7 +625,7 @@ public class CollectionWrapper<I> {
             found = true;
             list.add(item);
         }
-        return new CollectionWrapper<I>(list);
+        return wrap(list);
     }
 
     /**
@@ -384,7 +648,7 @@ public class CollectionWrapper<I> {
                 list.add(items.get(i));
             }
         }
-        return new CollectionWrapper<I>(list);
+        return wrap(list);
     }
 
     /**
@@ -407,7 +671,7 @@ public class CollectionWrapper<I> {
                 list.add(items.get(i));
             }
         }
-        return new CollectionWrapper<I>(list);
+        return wrap(list);
     }
 
     /**
@@ -415,10 +679,19 @@ public class CollectionWrapper<I> {
      * @param filter    the filter picking matches
      * @return number of matching items
      */
-    public int count(Filter<? super I> filter) {
+    public int count(final Filter<? super I> filter) {
         int count = 0;
-        for (I item : items) {
-            count += filter.accepts(item) ? 1 : 0;
+        for (Integer chunk : split(new Chunk<Integer>() {
+            @Override
+            public Integer run(int from, int to) {
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    count += filter.accepts(items.get(i)) ? 1 : 0;
+                }
+                return count;
+            }
+        })) {
+            count += chunk;
         }
         return count;
     }
@@ -496,13 +769,13 @@ public class CollectionWrapper<I> {
     /**
      * Returns the sum of all items in the list if they are all numeric
      * @return the sum total
+     * @see #mapToDouble(ToDoubleTransformer)
      */
     public double sum() {
         double sum = 0;
         for (I item : items) {
             if (item instanceof Number) {
-                Number number = (Number) item;
-                sum += Double.valueOf(number.toString());
+                sum += ((Number) item).doubleValue();
             } else {
                 throw new UnsupportedOperationException();
             }
@@ -510,6 +783,63 @@ public class CollectionWrapper<I> {
         return sum;
     }
 
+    /**
+     * Maps each of the items to {@code int}, returning a wrapper that can aggregate the values without boxing them
+     * @param transformer    the transformer
+     * @return the wrapper for the mapped values
+     */
+    public IntCollectionWrapper mapToInt(final ToIntTransformer<? super I> transformer) {
+        final int[] values = new int[items.size()];
+        split(new Chunk<Void>() {
+            @Override
+            public Void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    values[i] = transformer.map(items.get(i));
+                }
+                return null;
+            }
+        });
+        return new IntCollectionWrapper(values);
+    }
+
+    /**
+     * Maps each of the items to {@code long}, returning a wrapper that can aggregate the values without boxing them
+     * @param transformer    the transformer
+     * @return the wrapper for the mapped values
+     */
+    public LongCollectionWrapper mapToLong(final ToLongTransformer<? super I> transformer) {
+        final long[] values = new long[items.size()];
+        split(new Chunk<Void>() {
+            @Override
+            public Void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    values[i] = transformer.map(items.get(i));
+                }
+                return null;
+            }
+        });
+        return new LongCollectionWrapper(values);
+    }
+
+    /**
+     * Maps each of the items to {@code double}, returning a wrapper that can aggregate the values without boxing them
+     * @param transformer    the transformer
+     * @return the wrapper for the mapped values
+     */
+    public DoubleCollectionWrapper mapToDouble(final ToDoubleTransformer<? super I> transformer) {
+        final double[] values = new double[items.size()];
+        split(new Chunk<Void>() {
+            @Override
+            public Void run(int from, int to) {
+                for (int i = from; i < to; i++) {
+                    values[i] = transformer.map(items.get(i));
+                }
+                return null;
+            }
+        });
+        return new DoubleCollectionWrapper(values);
+    }
+
     /**
      * Returns the item residing at the specified position. Negative index counts from the end of the list.
      * @param index    the index leading to the item
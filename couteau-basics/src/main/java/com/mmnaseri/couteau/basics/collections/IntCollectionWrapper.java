@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections;
+
+import com.mmnaseri.couteau.basics.api.ToIntTransformer;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A collection wrapper specialized for {@code int} values, which are held in a primitive array so that
+ * aggregating them needs no boxing. Instances are usually obtained through
+ * {@link CollectionWrapper#mapToInt(ToIntTransformer)}.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 3:30 PM)
+ */
+public class IntCollectionWrapper {
+
+    /**
+     * This method -- specially when statically imported -- will increase readability.
+     * @param values    the values to be wrapped
+     * @return the wrapper for the values
+     */
+    public static IntCollectionWrapper with(int... values) {
+        return new IntCollectionWrapper(values.clone());
+    }
+
+    private final int[] values;
+
+    /**
+     * Wraps the given array, which must not be modified afterwards, without copying it
+     * @param values    the values
+     */
+    IntCollectionWrapper(int[] values) {
+        this.values = values;
+    }
+
+    /**
+     * @return the number of values currently wrapped
+     */
+    public int count() {
+        return values.length;
+    }
+
+    /**
+     * @return {@code true} if this wrapper is currently empty
+     */
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    /**
+     * Returns the value residing at the specified position. Negative index counts from the end of the list.
+     * @param index    the index leading to the value
+     * @return the actual value
+     */
+    public int get(int index) {
+        if (index < 0) {
+            index = values.length + index;
+        }
+        return values[index];
+    }
+
+    /**
+     * @return the values in the wrapper. Modifying this array does not affect the wrapper.
+     */
+    public int[] array() {
+        return values.clone();
+    }
+
+    /**
+     * @return the wrapper for the values in ascending order
+     */
+    public IntCollectionWrapper sort() {
+        final int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return new IntCollectionWrapper(sorted);
+    }
+
+    /**
+     * @return the sum total of the values, or zero if there are none
+     */
+    public long sum() {
+        long sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * @return the smallest of the values
+     * @throws NoSuchElementException if the wrapper is empty
+     */
+    public int min() {
+        if (values.length == 0) {
+            throw new NoSuchElementException();
+        }
+        int min = values[0];
+        for (int value : values) {
+            if (value < min) {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @return the largest of the values
+     * @throws NoSuchElementException if the wrapper is empty
+     */
+    public int max() {
+        if (values.length == 0) {
+            throw new NoSuchElementException();
+        }
+        int max = values[0];
+        for (int value : values) {
+            if (value > max) {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the average of the values, or {@link Double#NaN} if there are none
+     */
+    public double average() {
+        if (values.length == 0) {
+            return Double.NaN;
+        }
+        return (double) sum() / values.length;
+    }
+
+    /**
+     * Divides the range between the smallest and the largest value into buckets of equal width and counts the
+     * values falling into each of them
+     * @param buckets    the number of buckets
+     * @return the number of values in each bucket, starting with the bucket for the smallest values
+     */
+    public int[] histogram(int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Number of buckets must be positive: " + buckets);
+        }
+        final int[] histogram = new int[buckets];
+        if (values.length == 0) {
+            return histogram;
+        }
+        final double min = min();
+        final double width = ((double) max() - min + 1) / buckets;
+        for (int value : values) {
+            final int bucket = width == 0 ? 0 : (int) ((value - min) / width);
+            histogram[Math.min(buckets - 1, bucket)] ++;
+        }
+        return histogram;
+    }
+
+}
@@ -0,0 +1,527 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections;
+
+import com.mmnaseri.couteau.basics.api.Filter;
+import com.mmnaseri.couteau.basics.api.Processor;
+import com.mmnaseri.couteau.basics.api.Transformer;
+
+import java.util.*;
+
+/**
+ * The lazy collection wrapper records chained operations instead of performing them right away. The recorded
+ * operations are fused into a single pass over the wrapped items once a terminal operation, such as {@link #list()},
+ * {@link #first()}, {@link #count()} or {@link #find(Filter)}, is called, so that no intermediate collections are
+ * created along the way. The only exceptions are sorting and taking items relative to the end of the collection,
+ * which need to see all of their input before they can produce any output.
+ *
+ * Terminal operations stop pulling items as soon as their outcome is known; for instance, calling {@link #first()}
+ * after {@link #keep(Filter[])} will not look past the first item that is kept.
+ *
+ * Each terminal operation runs the whole pipeline again from the wrapped items. Items are pulled from the source
+ * one at a time, so a lazy wrapper obtained through {@link CollectionWrapper#stream(Iterable)} can run over
+ * unbounded sources as long as its operations do not need to hold on to all of them.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 2:05 PM)
+ */
+public class LazyCollectionWrapper<I> {
+
+    /**
+     * Receives the items flowing through a fused pipeline
+     */
+    private static abstract class Sink {
+
+        /**
+         * @param item    the next item
+         * @return {@code false} if this sink does not want to receive any more items
+         */
+        abstract boolean accept(Object item);
+
+        /**
+         * Signals the end of the items
+         */
+        void end() {
+        }
+
+    }
+
+    private static abstract class ForwardingSink extends Sink {
+
+        protected final Sink downstream;
+
+        private ForwardingSink(Sink downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        void end() {
+            downstream.end();
+        }
+
+        /**
+         * Passes the given items down the pipeline, for operations that hold on to items until the end
+         * @param items    the items to pass down
+         */
+        void flush(Iterable<?> items) {
+            for (Object item : items) {
+                if (!downstream.accept(item)) {
+                    break;
+                }
+            }
+            downstream.end();
+        }
+
+    }
+
+    /**
+     * A recorded operation, which will be fused into the pipeline by wrapping the sink for the operations
+     * following it
+     */
+    private interface Stage {
+
+        Sink wrap(Sink downstream);
+
+    }
+
+    private final Iterable<?> items;
+    private final List<Stage> stages;
+
+    LazyCollectionWrapper(Iterable<?> items) {
+        this(items, Collections.<Stage>emptyList());
+    }
+
+    private LazyCollectionWrapper(Iterable<?> items, List<Stage> stages) {
+        this.items = items;
+        this.stages = stages;
+    }
+
+    private <O> LazyCollectionWrapper<O> then(Stage stage) {
+        final List<Stage> stages = new ArrayList<Stage>(this.stages.size() + 1);
+        stages.addAll(this.stages);
+        stages.add(stage);
+        return new LazyCollectionWrapper<O>(items, stages);
+    }
+
+    private void evaluate(Sink terminal) {
+        Sink sink = terminal;
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            sink = stages.get(i).wrap(sink);
+        }
+        final Iterator<?> iterator = items.iterator();
+        while (iterator.hasNext()) {
+            if (!sink.accept(iterator.next())) {
+                break;
+            }
+        }
+        sink.end();
+    }
+
+    /**
+     * Will sort all "comparable" items in the wrapped collection
+     * @return the wrapper for sorted items
+     * @see CollectionWrapper#sort()
+     */
+    public LazyCollectionWrapper<I> sort() {
+        return sort(CollectionWrapper.NATURAL_ORDER);
+    }
+
+    /**
+     * Sorts all the items in the wrapped collection based on the given comparator. This will hold on to all
+     * the items reaching it.
+     * @param comparator    the comparator for wrapped items
+     * @return the wrapper for sorted items
+     */
+    public LazyCollectionWrapper<I> sort(final Comparator<? super I> comparator) {
+        return then(new Stage() {
+            @Override
+            public Sink wrap(Sink downstream) {
+                return new ForwardingSink(downstream) {
+                    private final List<I> sorted = new ArrayList<I>();
+
+                    @Override
+                    boolean accept(Object item) {
+                        //noinspection unchecked
+                        sorted.add((I) item);
+                        return true;
+                    }
+
+                    @Override
+                    void end() {
+                        Collections.sort(sorted, comparator);
+                        flush(sorted);
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Will keep all items acceptable by the filters
+     * @param filters    The filters that decide whether or not this item will be kept.
+     *                   If any one filter accepts the item, the item will be kept.
+     * @return the wrapper for all accepted items
+     */
+    public LazyCollectionWrapper<I> keep(final Filter<? super I>... filters) {
+        return then(new Stage() {
+            @Override
+            public Sink wrap(Sink downstream) {
+                return new ForwardingSink(downstream) {
+                    @Override
+                    boolean accept(Object item) {
+                        //noinspection unchecked
+                        return !CollectionWrapper.matches((I) item, filters) || downstream.accept(item);
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Will drop all items acceptable by the filters
+     * @param filters    the filters that decide whether or not the item will be dropped.
+     *                   If any single filter accepts the item, it will drop.
+     * @return the wrapper for all accepted items
+     */
+    public LazyCollectionWrapper<I> drop(final Filter<? super I>... filters) {
+        return then(new Stage() {
+            @Override
+            public Sink wrap(Sink downstream) {
+                return new ForwardingSink(downstream) {
+                    @Override
+                    boolean accept(Object item) {
+                        //noinspection unchecked
+                        return CollectionWrapper.matches((I) item, filters) || downstream.accept(item);
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Will map each item through the given transformer
+     * @param transformer    the transformer
+     * @param <O>       the type of output objects
+     * @return the wrapper for the transformer's output
+     */
+    public <O> LazyCollectionWrapper<O> transform(final Transformer<? super I, O> transformer) {
+        return then(new Stage() {
+            @Override
+            public Sink wrap(Sink downstream) {
+                return new ForwardingSink(downstream) {
+                    @Override
+                    boolean accept(Object item) {
+                        //noinspection unchecked
+                        return downstream.accept(transformer.map((I) item));
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Keeps all items prior to the first item failing the criteria
+     * @param filter    the filter
+     * @return the matching items
+     */
+    public LazyCollectionWrapper<I> keepWhile(final Filter<? super I> filter) {
+        return then(new Stage() {
+            @Override
+            public Sink wrap(Sink downstream) {
+                return new ForwardingSink(downstream) {
+                    @Override
+                    boolean accept(Object item) {
+                        //noinspection unchecked
+                        return filter.accepts((I) item) && downstream.accept(item);
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Drops all the items in the beginning of the list that match the criteria
+     * without any gaps
+     * @param filter    the criteria
+     * @return the matching items
+     */
+    public LazyCollectionWrapper<I> dropWhile(final Filter<? super I> filter) {
+        return then(new Stage() {
+            @Override
+            public Sink wrap(Sink downstream) {
+                return new ForwardingSink(downstream) {
+                    private boolean found = false;
+
+                    @Override
+                    boolean accept(Object item) {
+                        //noinspection unchecked
+                        if (!found && filter.accepts((I) item)) {
+                            return true;
+                        }
+                        found = true;
+                        return downstream.accept(item);
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Takes the indicated sublist of the items. Negative indexing means the number of items from
+     * the end of the list, in which case all items will have to be seen before any can be taken.
+     * @param from    the index from which the items should be included.
+     * @param to      the index to which the items should be included (inclusive).
+     * @return the matching sublist
+     * @see CollectionWrapper#take(int, int)
+     */
+    public LazyCollectionWrapper<I> take(final int from, final int to) {
+        if (from < 0 || to < 0) {
+            return then(new Stage() {
+                @Override
+                public Sink wrap(Sink downstream) {
+                    return new ForwardingSink(downstream) {
+                        private final List<I> buffer = new ArrayList<I>();
+
+                        @Override
+                        boolean accept(Object item) {
+                            //noinspection unchecked
+                            buffer.add((I) item);
+                            return true;
+                        }
+
+                        @Override
+                        void end() {
+                            flush(CollectionWrapper.with(buffer).take(from, to).list());
+                        }
+                    };
+                }
+            });
+        }
+        return then(new Stage() {
+            @Override
+            public Sink wrap(Sink downstream) {
+                return new ForwardingSink(downstream) {
+                    private final List<Object> window = new ArrayList<Object>();
+                    private int index = 0;
+
+                    @Override
+                    boolean accept(Object item) {
+                        if (from > to) {
+                            return false;
+                        }
+                        if (index >= from) {
+                            window.add(item);
+                        }
+                        index ++;
+                        return index <= to;
+                    }
+
+                    @Override
+                    void end() {
+                        //the sublist is only taken if it lies entirely within the items
+                        if (from <= to && index > to) {
+                            flush(window);
+                        } else {
+                            downstream.end();
+                        }
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Takes the indicated items from the beginning or the end of the list, depending on whether or not
+     * the offset is non-negative.
+     * @param offset    the offset.
+     * @return the selected sublist
+     * @see CollectionWrapper#take(int)
+     */
+    public LazyCollectionWrapper<I> take(final int offset) {
+        if (offset > 0) {
+            return take(0, offset);
+        }
+        return then(new Stage() {
+            @Override
+            public Sink wrap(Sink downstream) {
+                return new ForwardingSink(downstream) {
+                    private final LinkedList<Object> tail = new LinkedList<Object>();
+
+                    @Override
+                    boolean accept(Object item) {
+                        if (offset == 0) {
+                            return false;
+                        }
+                        tail.add(item);
+                        if (tail.size() > -offset) {
+                            tail.removeFirst();
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    void end() {
+                        flush(tail);
+                    }
+                };
+            }
+        });
+    }
+
+    /**
+     * Will work the processor over each of the items resulting from the recorded operations
+     * @param processor    the processor
+     */
+    public void each(final Processor<? super I> processor) {
+        evaluate(new Sink() {
+            @Override
+            boolean accept(Object item) {
+                //noinspection unchecked
+                processor.process((I) item);
+                return true;
+            }
+        });
+    }
+
+    /**
+     * @return a list of the items resulting from the recorded operations
+     */
+    public List<I> list() {
+        final List<I> list = new ArrayList<I>();
+        evaluate(new Sink() {
+            @Override
+            boolean accept(Object item) {
+                //noinspection unchecked
+                list.add((I) item);
+                return true;
+            }
+        });
+        return list;
+    }
+
+    /**
+     * @return an eager wrapper for the items resulting from the recorded operations
+     */
+    public CollectionWrapper<I> eager() {
+        return CollectionWrapper.with(list());
+    }
+
+    /**
+     * @return the number of items resulting from the recorded operations
+     */
+    public int count() {
+        return count(new Filter<I>() {
+            @Override
+            public boolean accepts(I item) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Counts the number of items matching the given criteria
+     * @param filter    the filter picking matches
+     * @return number of matching items
+     */
+    public int count(final Filter<? super I> filter) {
+        final int[] count = new int[1];
+        evaluate(new Sink() {
+            @Override
+            boolean accept(Object item) {
+                //noinspection unchecked
+                if (filter.accepts((I) item)) {
+                    count[0] ++;
+                }
+                return true;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * @return the first item or {@code null} if there are none
+     */
+    public I first() {
+        return find(new Filter<I>() {
+            @Override
+            public boolean accepts(I item) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Finds the item matched by the filter
+     * @param filter    the filter
+     * @return the matched item or {@code null} if none are found
+     */
+    public I find(final Filter<? super I> filter) {
+        final List<I> found = new ArrayList<I>(1);
+        evaluate(new Sink() {
+            @Override
+            boolean accept(Object item) {
+                //noinspection unchecked
+                if (filter.accepts((I) item)) {
+                    found.add((I) item);
+                    return false;
+                }
+                return true;
+            }
+        });
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Checks whether any of the items is chosen by the filter
+     * @param filter    the picking filter
+     * @return {@code true} if an item is chosen by the filter
+     */
+    public boolean exists(final Filter<? super I> filter) {
+        final boolean[] exists = new boolean[1];
+        evaluate(new Sink() {
+            @Override
+            boolean accept(Object item) {
+                //noinspection unchecked
+                exists[0] = filter.accepts((I) item);
+                return !exists[0];
+            }
+        });
+        return exists[0];
+    }
+
+    /**
+     * Checks if a condition would hold over all of the items
+     * @param filter    the filter encapsulating the predicate
+     * @return {@code true} or {@code false} based on the examination performed
+     */
+    public boolean forAll(final Filter<? super I> filter) {
+        return !exists(new Filter<I>() {
+            @Override
+            public boolean accepts(I item) {
+                return !filter.accepts(item);
+            }
+        });
+    }
+
+}
@@ -23,14 +23,27 @@
 
 package com.mmnaseri.couteau.basics.collections;
 
+import com.mmnaseri.couteau.basics.collections.compact.ImmutableArrayMap;
+import com.mmnaseri.couteau.basics.collections.compact.PerfectHashMap;
+
 import java.util.*;
 
 /**
+ * Builds maps fluently, as in {@code map(String.class).to(Integer.class).forKeys("a", "b").andValues(1, 2)}.
+ *
+ * Maps that will only be read from can be built through {@link MapCreator#andImmutableValues(Collection)}, which
+ * keeps up to {@link #SMALL_MAP_SIZE} entries in plain arrays and lays larger maps out with a perfect hash function.
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (14/6/16 AD, 16:09)
  */
 public final class MapBuilder {
 
+    /**
+     * The number of entries up to which immutable maps are scanned linearly instead of being hashed
+     */
+    public static final int SMALL_MAP_SIZE = 8;
+
     private MapBuilder() {}
 
     public static <K> MapKeyHolder<K> map(Class<K> keyType) {
@@ -70,13 +83,41 @@ public final class MapBuilder {
         }
 
         public Map<K, V> andValues(Collection<V> values) {
-            final HashMap<K, V> map = new HashMap<K, V>();
+            final int size = Math.min(values.size(), keys.size());
+            final HashMap<K, V> map = new HashMap<K, V>(size * 4 / 3 + 1);
             final Iterator<V> iterator = values.iterator();
-            for (int i = 0; i < Math.min(values.size(), keys.size()); i ++) {
+            for (int i = 0; i < size; i ++) {
                 map.put(keys.get(i), iterator.next());
             }
             return map;
         }
 
+        public Map<K, V> andImmutableValues(V... values) {
+            return andImmutableValues(Arrays.asList(values));
+        }
+
+        /**
+         * Builds a read-only map associating the keys with the given values. As with {@link #andValues(Collection)},
+         * extra keys or values are ignored, and later values win for duplicate keys.
+         * @param values    the values
+         * @return the immutable map
+         */
+        public Map<K, V> andImmutableValues(Collection<V> values) {
+            final int size = Math.min(values.size(), keys.size());
+            final LinkedHashMap<K, V> map = new LinkedHashMap<K, V>(size * 4 / 3 + 1);
+            final Iterator<V> iterator = values.iterator();
+            for (int i = 0; i < size; i ++) {
+                map.put(keys.get(i), iterator.next());
+            }
+            final List<K> distinctKeys = new ArrayList<K>(map.keySet());
+            final List<V> distinctValues = new ArrayList<V>(map.values());
+            if (map.size() <= SMALL_MAP_SIZE) {
+                return new ImmutableArrayMap<K, V>(distinctKeys, distinctValues);
+            }
+            final Map<K, V> hashed = PerfectHashMap.of(distinctKeys, distinctValues);
+            //keys whose hash codes collide cannot be hashed perfectly
+            return hashed != null ? hashed : Collections.unmodifiableMap(map);
+        }
+
     }
 }
@@ -0,0 +1,323 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections.compact;
+
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map from objects to primitive {@code double} values, using open addressing over two parallel arrays so that
+ * neither the entries nor the values are ever wrapped in objects of their own. {@code null} is a valid key.
+ *
+ * This class is not thread-safe.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 5:00 PM)
+ */
+public class Object2DoubleMap<K> {
+
+    /**
+     * Stands in for the {@code null} key in the table, where {@code null} marks a free slot
+     */
+    private static final Object NULL_KEY = new Object();
+
+    /**
+     * Marks a slot whose key has been removed, so that probing for keys placed after it still works
+     */
+    private static final Object REMOVED = new Object();
+
+    private Object[] keys;
+    private double[] values;
+    private int size = 0;
+    /**
+     * The number of slots that are not free, i.e. live keys as well as removed ones
+     */
+    private int used = 0;
+    private int modifications = 0;
+    private Set<K> keySet;
+
+    public Object2DoubleMap() {
+        this(4);
+    }
+
+    /**
+     * Instantiates the map
+     * @param expectedSize    the number of keys the map is expected to hold
+     */
+    public Object2DoubleMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = 4;
+        while (capacity * 3 < size * 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new double[capacity];
+    }
+
+    private static int hash(Object key) {
+        final int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @param key    the masked key
+     * @return the slot holding the key, or {@code -1} if the key is not in the map
+     */
+    private int find(Object key) {
+        final int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        Object current;
+        while ((current = keys[index]) != null) {
+            if (current != REMOVED && (current == key || current.equals(key))) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static Object mask(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    /**
+     * @return the number of keys in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(K key) {
+        return find(mask(key)) >= 0;
+    }
+
+    /**
+     * @param key             the key
+     * @param defaultValue    the value to return if the key is not in the map
+     * @return the value associated with the key, or the default value
+     */
+    public double get(K key, double defaultValue) {
+        final int index = find(mask(key));
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    /**
+     * Associates the value with the given key, replacing any previous value
+     * @param key      the key
+     * @param value    the value
+     */
+    public void put(K key, double value) {
+        final Object masked = mask(key);
+        final int mask = keys.length - 1;
+        int index = hash(masked) & mask;
+        int free = -1;
+        Object current;
+        while ((current = keys[index]) != null) {
+            if (current == REMOVED) {
+                if (free < 0) {
+                    free = index;
+                }
+            } else if (current == masked || current.equals(masked)) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        if (free < 0) {
+            free = index;
+            used ++;
+        }
+        keys[free] = masked;
+        values[free] = value;
+        size ++;
+        modifications ++;
+        if (used * 4 > keys.length * 3) {
+            rehash(capacityFor(size + 1));
+        }
+    }
+
+    /**
+     * Removes the key from the map
+     * @param key    the key
+     * @return {@code true} if the key was in the map
+     */
+    public boolean remove(K key) {
+        final int index = find(mask(key));
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    private void removeAt(int index) {
+        keys[index] = REMOVED;
+        values[index] = 0;
+        size --;
+        modifications ++;
+    }
+
+    public void clear() {
+        if (used == 0) {
+            return;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = null;
+            values[i] = 0;
+        }
+        size = 0;
+        used = 0;
+        modifications ++;
+    }
+
+    private void rehash(int capacity) {
+        final Object[] keys = this.keys;
+        final double[] values = this.values;
+        allocate(capacity);
+        final int mask = capacity - 1;
+        for (int i = 0; i < keys.length; i++) {
+            final Object key = keys[i];
+            if (key == null || key == REMOVED) {
+                continue;
+            }
+            int index = hash(key) & mask;
+            while (this.keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            this.keys[index] = key;
+            this.values[index] = values[i];
+        }
+        used = size;
+    }
+
+    /**
+     * @return a view of the keys in this map. Removing keys from the view removes them from the map.
+     */
+    public Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new KeySet();
+        }
+        return keySet;
+    }
+
+    private class KeySet extends AbstractSet<K> {
+
+        @Override
+        public Iterator<K> iterator() {
+            return new KeyIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return find(mask(o)) >= 0;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            final int index = find(mask(o));
+            if (index < 0) {
+                return false;
+            }
+            removeAt(index);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            Object2DoubleMap.this.clear();
+        }
+
+    }
+
+    private class KeyIterator implements Iterator<K> {
+
+        private int next = -1;
+        private int last = -1;
+        private int expectedModifications = modifications;
+
+        private KeyIterator() {
+            advance();
+        }
+
+        private void advance() {
+            do {
+                next ++;
+            } while (next < keys.length && (keys[next] == null || keys[next] == REMOVED));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.length;
+        }
+
+        @Override
+        public K next() {
+            if (modifications != expectedModifications) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            final Object key = keys[last];
+            //noinspection unchecked
+            return key == NULL_KEY ? null : (K) key;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modifications != expectedModifications) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            last = -1;
+            expectedModifications = modifications;
+        }
+
+    }
+
+}
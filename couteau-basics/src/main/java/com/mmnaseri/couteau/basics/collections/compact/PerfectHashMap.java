@@ -0,0 +1,247 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections.compact;
+
+import java.util.*;
+
+/**
+ * An immutable map over a fixed set of keys, laid out with a perfect hash function so that every lookup inspects
+ * exactly one slot. The keys are first spread over a number of buckets, and then, starting with the largest bucket,
+ * a seed is searched for each bucket which places all of its keys in slots that are still free (the
+ * "hash and displace" scheme). Lookups hash the key once to find its bucket, and once more with that bucket's seed
+ * to find its slot.
+ *
+ * Since the hash function is derived from {@link Object#hashCode()}, distinct keys with equal hash codes can never
+ * be separated; {@link #of(List, List)} returns {@code null} for such key sets.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 6:10 PM)
+ */
+public class PerfectHashMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * The number of seeds tried for a single bucket before giving up
+     */
+    private static final int MAXIMUM_ATTEMPTS = 1 << 16;
+
+    private final int[] seeds;
+    private final Object[] keys;
+    private final Object[] values;
+    /**
+     * Tells apart free slots from slots holding a {@code null} key
+     */
+    private final boolean[] used;
+    private final int size;
+    private Set<Entry<K, V>> entrySet;
+
+    private PerfectHashMap(int[] seeds, Object[] keys, Object[] values, boolean[] used, int size) {
+        this.seeds = seeds;
+        this.keys = keys;
+        this.values = values;
+        this.used = used;
+        this.size = size;
+    }
+
+    /**
+     * Builds a perfectly hashed map for the given keys
+     * @param keys      the keys, which must not contain duplicates
+     * @param values    the values, in the order of their keys
+     * @param <K>       the type of the keys
+     * @param <V>       the type of the values
+     * @return the map, or {@code null} if no perfect hash function could be found for the keys
+     */
+    public static <K, V> PerfectHashMap<K, V> of(List<? extends K> keys, List<? extends V> values) {
+        if (keys.size() != values.size()) {
+            throw new IllegalArgumentException("Expected " + keys.size() + " values but got " + values.size());
+        }
+        final int size = keys.size();
+        int capacity = 2;
+        while (capacity < size + (size >> 2)) {
+            capacity <<= 1;
+        }
+        final int mask = capacity - 1;
+        final int bucketCount = Math.max(1, size / 3);
+        final int[] hashes = new int[size];
+        final int[] bucketSizes = new int[bucketCount];
+        for (int i = 0; i < size; i++) {
+            final K key = keys.get(i);
+            hashes[i] = key == null ? 0 : key.hashCode();
+            bucketSizes[bucketOf(hashes[i], bucketCount)] ++;
+        }
+        //the keys are laid out bucket by bucket in a single array, bucket b taking up the indices
+        //starting at bucketStarts[b]
+        final int[] bucketStarts = new int[bucketCount + 1];
+        int largest = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            bucketStarts[i + 1] = bucketStarts[i] + bucketSizes[i];
+            largest = Math.max(largest, bucketSizes[i]);
+        }
+        final int[] members = new int[size];
+        final int[] next = bucketStarts.clone();
+        for (int i = 0; i < size; i++) {
+            members[next[bucketOf(hashes[i], bucketCount)] ++] = i;
+        }
+        //the buckets are counting-sorted so that larger buckets come first, and buckets of the same
+        //size keep their relative order
+        final int[] firstOfSize = new int[largest + 1];
+        for (int i = 0; i < bucketCount; i++) {
+            firstOfSize[bucketSizes[i]] ++;
+        }
+        int position = 0;
+        for (int bucketSize = largest; bucketSize >= 0; bucketSize--) {
+            final int count = firstOfSize[bucketSize];
+            firstOfSize[bucketSize] = position;
+            position += count;
+        }
+        final int[] order = new int[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            order[firstOfSize[bucketSizes[i]] ++] = i;
+        }
+        final int[] seeds = new int[bucketCount];
+        final Object[] table = new Object[capacity];
+        final Object[] tableValues = new Object[capacity];
+        final boolean[] used = new boolean[capacity];
+        final int[] slots = new int[size];
+        for (int bucketIndex : order) {
+            final int bucketStart = bucketStarts[bucketIndex];
+            final int bucketSize = bucketSizes[bucketIndex];
+            if (bucketSize == 0) {
+                break;
+            }
+            int seed = 0;
+            boolean placed = false;
+            while (!placed && seed < MAXIMUM_ATTEMPTS) {
+                seed ++;
+                placed = true;
+                for (int i = 0; i < bucketSize && placed; i++) {
+                    final int slot = hash(hashes[members[bucketStart + i]], seed) & mask;
+                    if (used[slot]) {
+                        placed = false;
+                    }
+                    for (int j = 0; j < i && placed; j++) {
+                        placed = slots[j] != slot;
+                    }
+                    slots[i] = slot;
+                }
+            }
+            if (!placed) {
+                return null;
+            }
+            seeds[bucketIndex] = seed;
+            for (int i = 0; i < bucketSize; i++) {
+                final int key = members[bucketStart + i];
+                used[slots[i]] = true;
+                table[slots[i]] = keys.get(key);
+                tableValues[slots[i]] = values.get(key);
+            }
+        }
+        return new PerfectHashMap<K, V>(seeds, table, tableValues, used, size);
+    }
+
+    private static int hash(int hashCode, int seed) {
+        int hash = hashCode ^ (seed * 0x9E3779B9);
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int bucketOf(int hashCode, int bucketCount) {
+        return (hash(hashCode, 0) & 0x7FFFFFFF) % bucketCount;
+    }
+
+    private int slotOf(Object key) {
+        final int hashCode = key == null ? 0 : key.hashCode();
+        final int slot = hash(hashCode, seeds[bucketOf(hashCode, seeds.length)]) & (keys.length - 1);
+        final Object current = keys[slot];
+        return used[slot] && (current == key || (current != null && current.equals(key))) ? slot : -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return slotOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        final int slot = slotOf(key);
+        //noinspection unchecked
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new Iterator<Entry<K, V>>() {
+                        private int next = advance(0);
+
+                        private int advance(int index) {
+                            while (index < used.length && !used[index]) {
+                                index ++;
+                            }
+                            return index;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < used.length;
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            //noinspection unchecked
+                            final Entry<K, V> entry = new SimpleImmutableEntry<K, V>((K) keys[next], (V) values[next]);
+                            next = advance(next + 1);
+                            return entry;
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return entrySet;
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections.compact;
+
+import java.util.*;
+
+/**
+ * A map meant for holding a handful of entries. Up to {@link #THRESHOLD} entries are kept side by side in a single
+ * array and looked up by a linear scan, without any per-entry objects or hash tables. Once the map grows past that,
+ * its entries are moved to a {@link HashMap}, so that larger maps do not degrade.
+ *
+ * This class is not thread-safe.
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 5:00 PM)
+ */
+public class SmallMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * The number of entries above which the map switches to hashing
+     */
+    public static final int THRESHOLD = 8;
+
+    /**
+     * Keys and values, interleaved
+     */
+    private Object[] table;
+    private int size = 0;
+    private Map<K, V> overflow;
+    private int modifications = 0;
+    private Set<Entry<K, V>> entrySet;
+
+    private static boolean equal(Object first, Object second) {
+        return first == second || (first != null && first.equals(second));
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size; i++) {
+            if (equal(table[i << 1], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return overflow != null ? overflow.size() : size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return overflow != null ? overflow.containsKey(key) : indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (overflow != null) {
+            return overflow.get(key);
+        }
+        final int index = indexOf(key);
+        //noinspection unchecked
+        return index < 0 ? null : (V) table[(index << 1) + 1];
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (overflow != null) {
+            return overflow.put(key, value);
+        }
+        final int index = indexOf(key);
+        if (index >= 0) {
+            //noinspection unchecked
+            final V previous = (V) table[(index << 1) + 1];
+            table[(index << 1) + 1] = value;
+            return previous;
+        }
+        modifications ++;
+        if (size == THRESHOLD) {
+            overflow = new HashMap<K, V>(THRESHOLD * 4);
+            for (int i = 0; i < size; i++) {
+                //noinspection unchecked
+                overflow.put((K) table[i << 1], (V) table[(i << 1) + 1]);
+            }
+            table = null;
+            size = 0;
+            return overflow.put(key, value);
+        }
+        if (table == null) {
+            table = new Object[4];
+        } else if (table.length == size << 1) {
+            table = Arrays.copyOf(table, Math.min(table.length << 1, THRESHOLD << 1));
+        }
+        table[size << 1] = key;
+        table[(size << 1) + 1] = value;
+        size ++;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (overflow != null) {
+            return overflow.remove(key);
+        }
+        final int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        //noinspection unchecked
+        final V previous = (V) table[(index << 1) + 1];
+        removeAt(index);
+        return previous;
+    }
+
+    /**
+     * Removes the entry at the given position by moving the last entry in its place
+     * @param index    the position
+     */
+    private void removeAt(int index) {
+        final int last = size - 1;
+        table[index << 1] = table[last << 1];
+        table[(index << 1) + 1] = table[(last << 1) + 1];
+        table[last << 1] = null;
+        table[(last << 1) + 1] = null;
+        size --;
+        modifications ++;
+    }
+
+    @Override
+    public void clear() {
+        overflow = null;
+        table = null;
+        size = 0;
+        modifications ++;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return overflow != null ? overflow.entrySet().iterator() : new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return SmallMap.this.size();
+                }
+
+                @Override
+                public void clear() {
+                    SmallMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private int next = 0;
+        private int last = -1;
+        private int expectedModifications = modifications;
+
+        @Override
+        public boolean hasNext() {
+            return next < size && overflow == null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (modifications != expectedModifications) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next ++;
+            //noinspection unchecked
+            final K key = (K) table[last << 1];
+            //noinspection unchecked
+            return new SimpleEntry<K, V>(key, (V) table[(last << 1) + 1]) {
+                @Override
+                public V setValue(V value) {
+                    super.setValue(value);
+                    return put(key, value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modifications != expectedModifications) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            //the last entry has been moved into the removed one's place, and has yet to be visited
+            next = last;
+            last = -1;
+            expectedModifications = modifications;
+        }
+
+    }
+
+}
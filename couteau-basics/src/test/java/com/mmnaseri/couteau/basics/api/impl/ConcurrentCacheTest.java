@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Weigher;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 10:40 PM)
+ */
+public class ConcurrentCacheTest {
+
+    @Test(timeOut = 20000)
+    public void testRemovalsRacingWeightedWritesKeepTheWeightInCheck() throws Exception {
+        final ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>(Integer.MAX_VALUE, AbstractCache.RemovePolicy.OLDEST_FIRST);
+        cache.setRecordStats(true);
+        cache.setMaximumWeight(20, new Weigher<Integer, Integer>() {
+            @Override
+            public long weigh(Integer key, Integer value) {
+                return value;
+            }
+        });
+        final int keys = 16;
+        final int rounds = 20000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread remover = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < rounds; i++) {
+                    cache.remove(i % keys);
+                }
+            }
+        });
+        remover.start();
+        start.countDown();
+        for (int i = 0; i < rounds; i++) {
+            cache.write(i % keys, 1 + i % 5);
+        }
+        remover.join();
+        long weight = 0;
+        int size = 0;
+        for (int i = 0; i < keys; i++) {
+            final Integer value = cache.read(i);
+            if (value != null) {
+                weight += value;
+                size ++;
+            }
+        }
+        Assert.assertEquals(cache.getWeight(), weight);
+        Assert.assertTrue(weight <= 20);
+        Assert.assertTrue(cache.getStats().getEvictionCount() <= rounds - size);
+    }
+
+}
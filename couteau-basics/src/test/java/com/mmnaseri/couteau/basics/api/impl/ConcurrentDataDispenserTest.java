@@ -0,0 +1,249 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.CacheStats;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 12:10 PM)
+ */
+public class ConcurrentDataDispenserTest {
+
+    @Test
+    public void testConcurrentMissesProduceOnce() throws Exception {
+        final AtomicInteger produced = new AtomicInteger(0);
+        final ConcurrentDataDispenser<String, Integer> dispenser = new ConcurrentDataDispenser<String, Integer>() {
+            @Override
+            protected Integer produce(String key) {
+                produced.incrementAndGet();
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignored) {
+                }
+                return key.length();
+            }
+        };
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger results = new AtomicInteger(0);
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException ignored) {
+                        return;
+                    }
+                    results.addAndGet(dispenser.read("hello"));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(produced.get(), 1);
+        Assert.assertEquals(results.get(), 40);
+        Assert.assertEquals(dispenser.read("hello"), Integer.valueOf(5));
+        Assert.assertEquals(produced.get(), 1);
+    }
+
+    @Test
+    public void testMissingValuesAreNotCached() throws Exception {
+        final AtomicInteger produced = new AtomicInteger(0);
+        final ConcurrentDataDispenser<String, Integer> dispenser = new ConcurrentDataDispenser<String, Integer>() {
+            @Override
+            protected Integer produce(String key) {
+                produced.incrementAndGet();
+                return null;
+            }
+        };
+        Assert.assertNull(dispenser.read("a"));
+        Assert.assertNull(dispenser.read("a"));
+        Assert.assertFalse(dispenser.contains("a"));
+        Assert.assertEquals(produced.get(), 2);
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        final ConcurrentDataDispenser<String, Integer> dispenser = new ConcurrentDataDispenser<String, Integer>(1, AbstractCache.RemovePolicy.OLDEST_FIRST, 1) {
+            @Override
+            protected Integer produce(String key) {
+                return key.isEmpty() ? null : key.length();
+            }
+        };
+        dispenser.setRecordStats(true);
+        dispenser.read("a");
+        dispenser.read("a");
+        dispenser.read("");
+        dispenser.read("bb");
+        dispenser.read("ccc");
+        final CacheStats stats = dispenser.getStats();
+        Assert.assertEquals(stats.getHitCount(), 1);
+        Assert.assertEquals(stats.getMissCount(), 4);
+        Assert.assertEquals(stats.getLoadSuccessCount(), 3);
+        Assert.assertEquals(stats.getLoadFailureCount(), 1);
+        Assert.assertEquals(stats.getEvictionCount(), 2);
+    }
+
+    @Test
+    public void testMissingItemsAreProducedInOneBatch() throws Exception {
+        final List<Set<String>> batches = new ArrayList<Set<String>>();
+        final ConcurrentDataDispenser<String, Integer> dispenser = new ConcurrentDataDispenser<String, Integer>() {
+            @Override
+            protected Integer produce(String key) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected Map<String, Integer> produceAll(Set<String> keys) {
+                batches.add(keys);
+                final Map<String, Integer> products = new HashMap<String, Integer>();
+                for (String key : keys) {
+                    if (!key.isEmpty()) {
+                        products.put(key, key.length());
+                    }
+                }
+                return products;
+            }
+        };
+        dispenser.write("a", 1);
+        final Map<String, Integer> items = dispenser.readAll(Arrays.asList("a", "bb", "ccc", ""));
+        Assert.assertEquals(batches.size(), 1);
+        Assert.assertEquals(batches.get(0).size(), 3);
+        Assert.assertEquals(items.size(), 3);
+        Assert.assertEquals(items.get("ccc"), Integer.valueOf(3));
+        Assert.assertTrue(dispenser.contains("bb"));
+        Assert.assertFalse(dispenser.contains(""));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testProductionFailureIsPropagated() throws Exception {
+        new ConcurrentDataDispenser<String, Integer>() {
+            @Override
+            protected Integer produce(String key) {
+                throw new IllegalArgumentException(key);
+            }
+        }.read("a");
+    }
+
+    @Test
+    public void testNegativeResultsAreCachedForTheirTimeToLive() throws Exception {
+        final AtomicInteger produced = new AtomicInteger(0);
+        final ConcurrentDataDispenser<String, Integer> dispenser = new ConcurrentDataDispenser<String, Integer>() {
+            @Override
+            protected Integer produce(String key) {
+                produced.incrementAndGet();
+                return null;
+            }
+        };
+        dispenser.setNegativeTimeToLive(100, TimeUnit.MILLISECONDS);
+        Assert.assertNull(dispenser.read("a"));
+        Assert.assertNull(dispenser.read("a"));
+        Assert.assertTrue(dispenser.readAll(Arrays.asList("a")).isEmpty());
+        Assert.assertEquals(produced.get(), 1);
+        Thread.sleep(150);
+        Assert.assertNull(dispenser.read("a"));
+        Assert.assertEquals(produced.get(), 2);
+        dispenser.write("a", 1);
+        Assert.assertEquals(dispenser.read("a"), Integer.valueOf(1));
+    }
+
+    @Test
+    public void testStaleItemsAreRefreshedInTheBackground() throws Exception {
+        final AtomicInteger version = new AtomicInteger(0);
+        final List<Runnable> refreshes = new ArrayList<Runnable>();
+        final ConcurrentDataDispenser<String, Integer> dispenser = new ConcurrentDataDispenser<String, Integer>() {
+            @Override
+            protected Integer produce(String key) {
+                return version.incrementAndGet();
+            }
+        };
+        dispenser.setRefreshAfterWrite(50, TimeUnit.MILLISECONDS, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                refreshes.add(command);
+            }
+        });
+        Assert.assertEquals(dispenser.read("a"), Integer.valueOf(1));
+        Assert.assertEquals(dispenser.read("a"), Integer.valueOf(1));
+        Assert.assertTrue(refreshes.isEmpty());
+        Thread.sleep(100);
+        Assert.assertEquals(dispenser.read("a"), Integer.valueOf(1));
+        Assert.assertEquals(dispenser.read("a"), Integer.valueOf(1));
+        Assert.assertEquals(refreshes.size(), 1);
+        refreshes.get(0).run();
+        Assert.assertEquals(dispenser.read("a"), Integer.valueOf(2));
+        Assert.assertEquals(refreshes.size(), 1);
+    }
+
+    @Test
+    public void testRefreshesAreDroppedAfterRemoval() throws Exception {
+        final AtomicInteger version = new AtomicInteger(0);
+        final List<Runnable> refreshes = new ArrayList<Runnable>();
+        final ConcurrentDataDispenser<String, Integer> dispenser = new ConcurrentDataDispenser<String, Integer>() {
+            @Override
+            protected Integer produce(String key) {
+                return version.incrementAndGet();
+            }
+        };
+        dispenser.setRefreshAfterWrite(50, TimeUnit.MILLISECONDS, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                refreshes.add(command);
+            }
+        });
+        dispenser.read("a");
+        dispenser.read("b");
+        Thread.sleep(100);
+        dispenser.read("a");
+        dispenser.read("b");
+        Assert.assertEquals(refreshes.size(), 2);
+        dispenser.remove("a");
+        dispenser.write("a", 100);
+        refreshes.get(0).run();
+        Assert.assertEquals(dispenser.read("a"), Integer.valueOf(100));
+        dispenser.invalidate();
+        refreshes.get(1).run();
+        Assert.assertFalse(dispenser.contains("b"));
+    }
+
+}
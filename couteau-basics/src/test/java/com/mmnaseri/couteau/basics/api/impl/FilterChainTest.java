@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Filter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 4:10 PM)
+ */
+public class FilterChainTest {
+
+    @Test
+    public void testAdaptiveChainMovesCheapSelectiveFiltersFirst() throws Exception {
+        final AtomicInteger expensiveCalls = new AtomicInteger(0);
+        final Filter<Integer> expensive = new Filter<Integer>() {
+            @Override
+            public boolean accepts(Integer item) {
+                expensiveCalls.incrementAndGet();
+                return String.valueOf(item).matches("(\\d)+") && !String.valueOf(item).matches("(\\d)*x");
+            }
+        };
+        final Filter<Integer> selective = new Filter<Integer>() {
+            @Override
+            public boolean accepts(Integer item) {
+                return item % 10 == 0;
+            }
+        };
+        final FilterChain<Integer> adaptive = new FilterChain<Integer>();
+        adaptive.addFilter(expensive);
+        adaptive.addFilter(selective);
+        adaptive.setAdaptive(true);
+        final FilterChain<Integer> plain = new FilterChain<Integer>();
+        plain.addFilter(expensive);
+        plain.addFilter(selective);
+        for (int i = 0; i < 5000; i++) {
+            Assert.assertEquals(adaptive.accepts(i), plain.accepts(i));
+        }
+        Assert.assertSame(adaptive.getEvaluationOrder().get(0), selective);
+        Assert.assertSame(plain.getEvaluationOrder().get(0), expensive);
+        expensiveCalls.set(0);
+        for (int i = 0; i < 1000; i++) {
+            adaptive.accepts(i);
+        }
+        Assert.assertEquals(expensiveCalls.get(), 100);
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 7:40 PM)
+ */
+public class GuardedCacheTest {
+
+    @Test
+    public void testDefiniteMissesDoNotReachTheCache() throws Exception {
+        final AtomicInteger lookups = new AtomicInteger(0);
+        final SimpleCache<String, Integer> backing = new SimpleCache<String, Integer>() {
+            @Override
+            public Integer read(String key) {
+                lookups.incrementAndGet();
+                return super.read(key);
+            }
+        };
+        backing.write("old", 0);
+        final GuardedCache<String, Integer> cache = new GuardedCache<String, Integer>(backing);
+        cache.write("a", 1);
+        Assert.assertEquals(cache.read("a"), Integer.valueOf(1));
+        Assert.assertEquals(lookups.get(), 1);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNull(cache.read("missing-" + i));
+            Assert.assertFalse(cache.contains("missing-" + i));
+        }
+        Assert.assertTrue(lookups.get() < 5);
+        Assert.assertTrue(cache.getNegativeCount() > 190);
+        Assert.assertNull(cache.read("old"));
+        cache.admit("old");
+        Assert.assertEquals(cache.read("old"), Integer.valueOf(0));
+        Assert.assertEquals(cache.readAll(Arrays.asList("a", "b", "old")).size(), 2);
+        cache.invalidate();
+        Assert.assertFalse(cache.contains("a"));
+    }
+
+    @Test
+    public void testRemovingKeysNeverWrittenSucceeds() throws Exception {
+        final GuardedCache<String, Integer> cache = new GuardedCache<String, Integer>(new SimpleCache<String, Integer>());
+        cache.write("a", 1);
+        Assert.assertTrue(cache.remove("never-written"));
+        Assert.assertEquals(cache.getNegativeCount(), 0);
+        Assert.assertTrue(cache.remove("a"));
+        Assert.assertFalse(cache.contains("a"));
+    }
+
+}
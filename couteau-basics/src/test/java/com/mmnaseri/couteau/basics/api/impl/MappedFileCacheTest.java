@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 8:45 PM)
+ */
+public class MappedFileCacheTest {
+
+    private File file;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        file = File.createTempFile("couteau-cache", ".log");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+        //noinspection ResultOfMethodCallIgnored
+        new File(file.getPath() + ".compacting").delete();
+    }
+
+    private MappedFileCache<Integer, String> open(int size) throws Exception {
+        return new MappedFileCache<Integer, String>(file, size, new JavaSerializer<Integer>(), new JavaSerializer<String>());
+    }
+
+    @Test
+    public void testItemsSurviveReopening() throws Exception {
+        MappedFileCache<Integer, String> cache = open(64 * 1024);
+        cache.write(1, "a");
+        cache.write(2, "b");
+        cache.write(3, "c");
+        cache.write(2, "d");
+        cache.remove(3);
+        cache.close();
+        cache = open(64 * 1024);
+        Assert.assertEquals(cache.read(1), "a");
+        Assert.assertEquals(cache.read(2), "d");
+        Assert.assertFalse(cache.contains(3));
+        cache.invalidate();
+        cache.close();
+        cache = open(64 * 1024);
+        Assert.assertFalse(cache.contains(1));
+        cache.close();
+    }
+
+    @Test
+    public void testLogIsCompactedWhenFull() throws Exception {
+        MappedFileCache<Integer, String> cache = open(4 * 1024);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(cache.write(i % 10, "value #" + i));
+        }
+        cache.close();
+        cache = open(4 * 1024);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(cache.read(i), "value #" + (990 + i));
+        }
+        cache.close();
+    }
+
+    @Test
+    public void testRefusedRenameGivesUpCompaction() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger(0);
+        final MappedFileCache<Integer, String> cache = new MappedFileCache<Integer, String>(file, 4 * 1024, new JavaSerializer<Integer>(), new JavaSerializer<String>()) {
+            @Override
+            void switchTo(File compacted) throws IOException {
+                //as on platforms that will not replace a file that is still mapped
+                attempts.incrementAndGet();
+                throw new IOException("refused");
+            }
+        };
+        int written = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (cache.write(i % 10, "value #" + i)) {
+                written = i + 1;
+            }
+        }
+        Assert.assertTrue(written > 10 && written < 1000);
+        Assert.assertEquals(attempts.get(), 1);
+        Assert.assertFalse(new File(file.getPath() + ".compacting").exists());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(cache.read(i), "value #" + (written - 1 - (written - 1 - i) % 10));
+        }
+        cache.close();
+    }
+
+    @Test
+    public void testTieredCachePromotesItems() throws Exception {
+        final MappedFileCache<Integer, String> second = open(64 * 1024);
+        second.write(1, "a");
+        final SimpleCache<Integer, String> first = new SimpleCache<Integer, String>();
+        final TieredCache<Integer, String> cache = new TieredCache<Integer, String>(first, second);
+        Assert.assertFalse(first.contains(1));
+        Assert.assertEquals(cache.read(1), "a");
+        Assert.assertTrue(first.contains(1));
+        cache.write(2, "b");
+        Assert.assertEquals(second.read(2), "b");
+        second.close();
+    }
+
+    @Test
+    public void testInterruptedCompactionLosesNothing() throws Exception {
+        final MappedFileCache<Integer, String> cache = new MappedFileCache<Integer, String>(file, 4 * 1024, new JavaSerializer<Integer>(), new JavaSerializer<String>()) {
+            @Override
+            void switchTo(File compacted) throws IOException {
+                //the process dies after the compacted log has been written, but before it is put in place
+                final FileOutputStream stream = new FileOutputStream(compacted);
+                stream.write(new byte[]{1, 2, 3});
+                stream.close();
+                throw new IllegalStateException("crash");
+            }
+        };
+        int written = 0;
+        try {
+            for (int i = 0; i < 1000; i++) {
+                cache.write(i % 10, "value #" + i);
+                written = i + 1;
+            }
+            Assert.fail();
+        } catch (IllegalStateException ignored) {
+        }
+        Assert.assertTrue(written > 10);
+        cache.flush();
+        final MappedFileCache<Integer, String> reopened = open(4 * 1024);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(reopened.read(i), "value #" + (written - 1 - (written - 1 - i) % 10));
+        }
+        Assert.assertFalse(new File(file.getPath() + ".compacting").exists());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(reopened.write(i % 10, "other #" + i));
+        }
+        reopened.close();
+        cache.close();
+    }
+
+}
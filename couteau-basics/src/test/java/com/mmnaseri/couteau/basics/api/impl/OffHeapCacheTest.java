@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Cache;
+import com.mmnaseri.couteau.basics.api.Filter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 7:05 PM)
+ */
+public class OffHeapCacheTest {
+
+    @Test
+    public void testReadingAndWriting() throws Exception {
+        final OffHeapCache<Integer, String> cache = new OffHeapCache<Integer, String>(new JavaSerializer<String>(), 1024 * 1024);
+        Assert.assertEquals(cache.getAllocatedSize(), 0);
+        cache.write(1, "a");
+        cache.write(2, "b");
+        cache.write(1, "c");
+        Assert.assertEquals(cache.read(1), "c");
+        Assert.assertEquals(cache.read(2), "b");
+        Assert.assertNull(cache.read(3));
+        cache.remove(2);
+        Assert.assertFalse(cache.contains(2));
+        Assert.assertEquals(cache.remove(new Filter<Integer>() {
+            @Override
+            public boolean accepts(Integer item) {
+                return item == 1;
+            }
+        }), 1);
+        Assert.assertFalse(cache.contains(1));
+    }
+
+    @Test
+    public void testWritingNullRemovesTheItem() throws Exception {
+        final OffHeapCache<Integer, String> cache = new OffHeapCache<Integer, String>(new JavaSerializer<String>(), 1024 * 1024);
+        cache.setRecordStats(true);
+        cache.write(1, "a");
+        Assert.assertFalse(cache.write(1, null));
+        Assert.assertFalse(cache.contains(1));
+        Assert.assertNull(cache.read(1));
+        Assert.assertEquals(cache.getStats().getHitCount(), 0);
+        Assert.assertFalse(cache.writeAll(Collections.<Integer, String>singletonMap(2, null)));
+        Assert.assertFalse(cache.contains(2));
+    }
+
+    @Test
+    public void testOldestSlabIsReclaimed() throws Exception {
+        final OffHeapCache<Integer, String> cache = new OffHeapCache<Integer, String>(new JavaSerializer<String>(), 2048, 1024);
+        cache.setRecordStats(true);
+        for (int i = 0; i < 300; i++) {
+            Assert.assertTrue(cache.write(i, "value #" + i));
+        }
+        Assert.assertEquals(cache.getAllocatedSize(), 2048);
+        Assert.assertFalse(cache.contains(0));
+        Assert.assertEquals(cache.read(299), "value #299");
+        Assert.assertTrue(cache.getStats().getEvictionCount() > 0);
+        final StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 2048; i++) {
+            large.append('x');
+        }
+        Assert.assertFalse(cache.write(299, large.toString()));
+        Assert.assertFalse(cache.contains(299));
+    }
+
+    @Test
+    public void testBackingDispenser() throws Exception {
+        final Cache<String, Integer> cache = new OffHeapCache<String, Integer>(new JavaSerializer<Integer>(), 1024 * 1024);
+        final CachingDataDispenser<String, Integer> dispenser = new CachingDataDispenser<String, Integer>() {
+            @Override
+            protected Cache<String, Integer> getCache() {
+                return cache;
+            }
+
+            @Override
+            protected Integer produce(String key) {
+                return key.length();
+            }
+        };
+        Assert.assertEquals(dispenser.read("hello"), Integer.valueOf(5));
+        Assert.assertTrue(cache.contains("hello"));
+    }
+
+}
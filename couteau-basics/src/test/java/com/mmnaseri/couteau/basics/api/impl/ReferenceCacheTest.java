@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 4:45 PM)
+ */
+public class ReferenceCacheTest {
+
+    @Test
+    public void testEqualKeysFindTheSameItem() throws Exception {
+        final ReferenceCache<String, Object> cache = new ReferenceCache<String, Object>(ReferenceCache.ReferenceStrength.WEAK, ReferenceCache.ReferenceStrength.SOFT);
+        final String key = new String("key");
+        final Object value = new Object();
+        cache.write(key, value);
+        Assert.assertTrue(cache.contains(new String("key")));
+        Assert.assertSame(cache.read(new String("key")), value);
+        cache.remove(new String("key"));
+        Assert.assertFalse(cache.contains(key));
+    }
+
+    @Test
+    public void testWritingNullRemovesTheItem() throws Exception {
+        final ReferenceCache<String, Object> cache = new ReferenceCache<String, Object>(ReferenceCache.ReferenceStrength.STRONG, ReferenceCache.ReferenceStrength.STRONG);
+        cache.write("key", new Object());
+        Assert.assertFalse(cache.write("key", null));
+        Assert.assertFalse(cache.contains("key"));
+        Assert.assertFalse(cache.write("other", null));
+        Assert.assertFalse(cache.contains("other"));
+    }
+
+    @Test
+    public void testWeakValuesAreReclaimed() throws Exception {
+        final ReferenceCache<String, Object> cache = new ReferenceCache<String, Object>(ReferenceCache.ReferenceStrength.STRONG, ReferenceCache.ReferenceStrength.WEAK);
+        cache.setRecordStats(true);
+        final Object value = new Object();
+        cache.write("kept", value);
+        cache.write("collected", new Object());
+        for (int i = 0; i < 20 && cache.contains("collected"); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(cache.contains("collected"));
+        Assert.assertNull(cache.read("collected"));
+        Assert.assertSame(cache.read("kept"), value);
+        Assert.assertEquals(cache.getStats().getEvictionCount(), 1);
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.Weigher;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 9:30 PM)
+ */
+public class SegmentedCacheTest {
+
+    private static int size(SegmentedCache<Integer, ?> cache, int keys) {
+        int size = 0;
+        for (int i = 0; i < keys; i++) {
+            if (cache.contains(i)) {
+                size ++;
+            }
+        }
+        return size;
+    }
+
+    @Test
+    public void testSizeNeverExceedsCapacity() throws Exception {
+        for (int capacity : new int[]{1, 3, 10, 17, 100}) {
+            final SegmentedCache<Integer, Integer> cache = new SegmentedCache<Integer, Integer>(capacity, AbstractCache.RemovePolicy.OLDEST_FIRST);
+            for (int i = 0; i < 1000; i++) {
+                cache.write(i, i);
+                Assert.assertTrue(size(cache, i + 1) <= capacity, "capacity " + capacity + " exceeded");
+            }
+            Assert.assertTrue(cache.contains(999));
+        }
+        final SegmentedCache<Integer, Integer> single = new SegmentedCache<Integer, Integer>(10, AbstractCache.RemovePolicy.OLDEST_FIRST, 1);
+        for (int i = 0; i < 100; i++) {
+            single.write(i, i);
+        }
+        Assert.assertEquals(size(single, 100), 10);
+    }
+
+    @Test
+    public void testWeightBudgetIsSharedBySegments() throws Exception {
+        final SegmentedCache<Integer, String> cache = new SegmentedCache<Integer, String>(1000, AbstractCache.RemovePolicy.OLDEST_FIRST);
+        cache.setMaximumWeight(160, new Weigher<Integer, String>() {
+            @Override
+            public long weigh(Integer key, String value) {
+                return value.length();
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            cache.write(i, "a");
+        }
+        Assert.assertEquals(cache.getWeight(), 100);
+        //heavier than a sixteenth of the budget, but lighter than the whole of it
+        final StringBuilder heavy = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            heavy.append('b');
+        }
+        Assert.assertTrue(cache.write(1000, heavy.toString()));
+        Assert.assertEquals(cache.read(1000), heavy.toString());
+        Assert.assertTrue(cache.getWeight() <= 160);
+        Assert.assertEquals(size(cache, 100), 60);
+        cache.remove(1000);
+        Assert.assertEquals(cache.getWeight(), 60);
+        cache.invalidate();
+        Assert.assertEquals(cache.getWeight(), 0);
+    }
+
+}
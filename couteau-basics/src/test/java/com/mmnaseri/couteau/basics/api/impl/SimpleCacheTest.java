@@ -0,0 +1,236 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.api.impl;
+
+import com.mmnaseri.couteau.basics.api.CacheStats;
+import com.mmnaseri.couteau.basics.api.Weigher;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 11:05 AM)
+ */
+public class SimpleCacheTest {
+
+    private static class ManualClockCache<K, V> extends SimpleCache<K, V> {
+
+        private long time = 0;
+
+        @Override
+        protected long currentTime() {
+            return time;
+        }
+
+        private void advance(long duration, TimeUnit unit) {
+            time += unit.toNanos(duration);
+        }
+
+    }
+
+    /**
+     * Replays a trace of two phases, each with its own hot set of keys, interleaved with a scan
+     * of keys that are never seen again
+     * @param removePolicy    the remove policy
+     * @return the hit rate of the cache over the second phase
+     */
+    private static double replayScanTrace(AbstractCache.RemovePolicy removePolicy) {
+        final SimpleCache<Integer, Integer> cache = new SimpleCache<Integer, Integer>(100, removePolicy);
+        final Random random = new Random(42);
+        int scan = 1000000;
+        for (int phase = 0; phase < 2; phase++) {
+            cache.setRecordStats(true);
+            for (int i = 0; i < 50000; i++) {
+                final int key = random.nextInt(10) < 4 ? phase * 1000 + random.nextInt(80) : scan++;
+                if (cache.read(key) == null) {
+                    cache.write(key, key);
+                }
+            }
+        }
+        return cache.getStats().getHitRate();
+    }
+
+    @Test
+    public void testWindowTinyLfuResistsScans() throws Exception {
+        final double tinyLfu = replayScanTrace(AbstractCache.RemovePolicy.WINDOW_TINY_LFU);
+        final double oldestFirst = replayScanTrace(AbstractCache.RemovePolicy.OLDEST_FIRST);
+        final double leastUsedFirst = replayScanTrace(AbstractCache.RemovePolicy.LEAST_USED_FIRST);
+        Assert.assertTrue(tinyLfu > oldestFirst);
+        Assert.assertTrue(tinyLfu > leastUsedFirst);
+    }
+
+    @Test
+    public void testOldestFirst() throws Exception {
+        final SimpleCache<Integer, String> cache = new SimpleCache<Integer, String>(2, AbstractCache.RemovePolicy.OLDEST_FIRST);
+        cache.write(1, "a");
+        cache.write(2, "b");
+        cache.write(3, "c");
+        Assert.assertEquals(cache.read(1), "a");
+        cache.write(4, "d");
+        Assert.assertFalse(cache.contains(2));
+        Assert.assertTrue(cache.contains(1));
+        Assert.assertTrue(cache.contains(3));
+        Assert.assertTrue(cache.contains(4));
+    }
+
+    @Test
+    public void testLeastUsedFirst() throws Exception {
+        final SimpleCache<Integer, String> cache = new SimpleCache<Integer, String>(2, AbstractCache.RemovePolicy.LEAST_USED_FIRST);
+        cache.write(1, "a");
+        cache.write(2, "b");
+        cache.write(3, "c");
+        cache.read(1);
+        cache.read(1);
+        cache.read(2);
+        cache.write(4, "d");
+        Assert.assertFalse(cache.contains(3));
+        cache.read(4);
+        cache.read(4);
+        cache.write(5, "e");
+        Assert.assertFalse(cache.contains(2));
+        Assert.assertTrue(cache.contains(1));
+        Assert.assertTrue(cache.contains(4));
+        Assert.assertTrue(cache.contains(5));
+    }
+
+    @Test
+    public void testRemoveAndInvalidate() throws Exception {
+        final SimpleCache<Integer, String> cache = new SimpleCache<Integer, String>(1, AbstractCache.RemovePolicy.OLDEST_FIRST);
+        cache.write(1, "a");
+        cache.write(2, "b");
+        Assert.assertTrue(cache.remove(1));
+        cache.write(3, "c");
+        Assert.assertTrue(cache.contains(2));
+        Assert.assertTrue(cache.contains(3));
+        cache.invalidate();
+        Assert.assertFalse(cache.contains(2));
+        cache.write(4, "d");
+        Assert.assertEquals(cache.read(4), "d");
+    }
+
+    @Test
+    public void testExpireAfterWrite() throws Exception {
+        final ManualClockCache<Integer, String> cache = new ManualClockCache<Integer, String>();
+        cache.setExpireAfterWrite(10, TimeUnit.SECONDS);
+        cache.write(1, "a");
+        cache.advance(6, TimeUnit.SECONDS);
+        Assert.assertEquals(cache.read(1), "a");
+        cache.write(2, "b");
+        cache.advance(6, TimeUnit.SECONDS);
+        Assert.assertFalse(cache.contains(1));
+        Assert.assertNull(cache.read(1));
+        Assert.assertEquals(cache.read(2), "b");
+    }
+
+    @Test
+    public void testExpireAfterAccess() throws Exception {
+        final ManualClockCache<Integer, String> cache = new ManualClockCache<Integer, String>();
+        cache.setExpireAfterAccess(10, TimeUnit.SECONDS);
+        cache.write(1, "a");
+        cache.write(2, "b");
+        for (int i = 0; i < 5; i++) {
+            cache.advance(6, TimeUnit.SECONDS);
+            Assert.assertEquals(cache.read(1), "a");
+        }
+        Assert.assertNull(cache.read(2));
+    }
+
+    @Test
+    public void testExpiredItemsAreSweptOnWrite() throws Exception {
+        final ManualClockCache<Integer, String> cache = new ManualClockCache<Integer, String>();
+        cache.setExpireAfterWrite(1, TimeUnit.MINUTES);
+        for (int i = 0; i < 100; i++) {
+            cache.write(i, String.valueOf(i));
+        }
+        cache.advance(30, TimeUnit.MINUTES);
+        cache.write(100, "100");
+        Assert.assertEquals(cache.getStore().size(), 1);
+        cache.advance(2, TimeUnit.MINUTES);
+        cache.cleanUp();
+        Assert.assertTrue(cache.getStore().isEmpty());
+    }
+
+    @Test
+    public void testWeightBoundedCache() throws Exception {
+        final SimpleCache<Integer, String> cache = new SimpleCache<Integer, String>(Integer.MAX_VALUE, AbstractCache.RemovePolicy.OLDEST_FIRST);
+        cache.setMaximumWeight(10, new Weigher<Integer, String>() {
+            @Override
+            public long weigh(Integer key, String value) {
+                return value.length();
+            }
+        });
+        cache.write(1, "aaaa");
+        cache.write(2, "bbbb");
+        Assert.assertEquals(cache.getWeight(), 8);
+        cache.write(3, "cccc");
+        Assert.assertFalse(cache.contains(1));
+        Assert.assertEquals(cache.getWeight(), 8);
+        cache.write(2, "b");
+        Assert.assertEquals(cache.getWeight(), 5);
+        Assert.assertFalse(cache.write(4, "ddddddddddd"));
+        Assert.assertFalse(cache.contains(4));
+        cache.remove(3);
+        Assert.assertEquals(cache.getWeight(), 1);
+    }
+
+    @Test
+    public void testStats() throws Exception {
+        final SimpleCache<Integer, String> cache = new SimpleCache<Integer, String>(1);
+        cache.write(1, "a");
+        cache.read(1);
+        Assert.assertEquals(cache.getStats().getRequestCount(), 0);
+        cache.setRecordStats(true);
+        cache.read(1);
+        cache.read(1);
+        cache.read(2);
+        cache.write(2, "b");
+        cache.write(3, "c");
+        final CacheStats stats = cache.getStats();
+        Assert.assertEquals(stats.getHitCount(), 2);
+        Assert.assertEquals(stats.getMissCount(), 1);
+        Assert.assertEquals(stats.getHitRate(), 2.0 / 3);
+        Assert.assertEquals(stats.getEvictionCount(), 1);
+    }
+
+    /**
+     * Overflowing writes into a full cache used to scan the whole store, which made this test
+     * quadratic in the capacity of the cache.
+     */
+    @Test(timeOut = 10000)
+    public void testOverflowingWritesOnLargeCache() throws Exception {
+        for (AbstractCache.RemovePolicy removePolicy : AbstractCache.RemovePolicy.values()) {
+            final int capacity = 200000;
+            final SimpleCache<Integer, Integer> cache = new SimpleCache<Integer, Integer>(capacity, removePolicy);
+            for (int i = 0; i < 3 * capacity; i++) {
+                cache.write(i, i);
+                cache.read(i - capacity / 2);
+            }
+            Assert.assertTrue(cache.contains(3 * capacity - 1));
+        }
+    }
+
+}
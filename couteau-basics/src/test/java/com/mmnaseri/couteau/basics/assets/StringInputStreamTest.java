@@ -0,0 +1,72 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.assets;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 4:35 PM)
+ */
+public class StringInputStreamTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void testEncodingAcrossChunks() throws Exception {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            builder.append("a\u00e9\u20ac\ud83d\ude00");
+        }
+        final byte[] expected = builder.toString().getBytes(UTF_8);
+        final StringInputStream stream = new StringInputStream(builder, UTF_8);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(stream.read());
+        final byte[] buffer = new byte[1000];
+        int read;
+        while ((read = stream.read(buffer, 0, buffer.length)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        Assert.assertEquals(output.toByteArray(), expected);
+        Assert.assertEquals(stream.read(), -1);
+        Assert.assertEquals(stream.available(), 0);
+    }
+
+    @Test
+    public void testSkippingAndUnsignedBytes() throws Exception {
+        final String input = "abc\u00e9";
+        final StringInputStream stream = new StringInputStream(input, UTF_8);
+        Assert.assertTrue(stream.available() > 0);
+        Assert.assertEquals(stream.skip(3), 3);
+        Assert.assertEquals(stream.read(), 0xC3);
+        Assert.assertEquals(stream.read(), 0xA9);
+        Assert.assertEquals(stream.skip(10), 0);
+        Assert.assertEquals(stream.read(new byte[4], 0, 4), -1);
+    }
+
+}
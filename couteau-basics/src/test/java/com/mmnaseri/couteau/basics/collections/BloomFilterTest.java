@@ -0,0 +1,58 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 7:40 PM)
+ */
+public class BloomFilterTest {
+
+    @Test
+    public void testNoFalseNegativesAndBoundedFalsePositives() throws Exception {
+        final BloomFilter<String> filter = new BloomFilter<String>(1000, 0.01);
+        final long initialSize = filter.getBitCount();
+        for (int i = 0; i < 20000; i++) {
+            filter.add("in-" + i);
+        }
+        Assert.assertTrue(filter.getBitCount() > initialSize);
+        for (int i = 0; i < 20000; i++) {
+            Assert.assertTrue(filter.mightContain("in-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 20000; i++) {
+            if (filter.mightContain("out-" + i)) {
+                falsePositives ++;
+            }
+        }
+        Assert.assertTrue(falsePositives < 20000 * 0.02, "Too many false positives: " + falsePositives);
+        filter.clear();
+        Assert.assertFalse(filter.mightContain("in-0"));
+        Assert.assertEquals(filter.getBitCount(), initialSize);
+    }
+
+}
@@ -25,6 +25,7 @@ package com.mmnaseri.couteau.basics.collections;
 
 import com.mmnaseri.couteau.basics.api.Filter;
 import com.mmnaseri.couteau.basics.api.Processor;
+import com.mmnaseri.couteau.basics.api.ToIntTransformer;
 import com.mmnaseri.couteau.basics.api.Transformer;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -150,4 +151,82 @@ public class CollectionWrapperTest {
         Assert.assertTrue(list.contains(6));
         Assert.assertTrue(list.contains(9));
     }
+
+    @Test
+    public void testParallelOperationsKeepOrder() throws Exception {
+        final List<Integer> numbers = new ArrayList<Integer>();
+        for (int i = 0; i < 10 * CollectionWrapper.PARALLEL_THRESHOLD; i++) {
+            numbers.add(i);
+        }
+        final Filter<Integer> even = new Filter<Integer>() {
+            @Override
+            public boolean accepts(Integer item) {
+                return item % 2 == 0;
+            }
+        };
+        final Transformer<Integer, Integer> negate = new Transformer<Integer, Integer>() {
+            @Override
+            public Integer map(Integer input) {
+                return -input;
+            }
+        };
+        final CollectionWrapper<Integer> sequential = with(numbers);
+        final CollectionWrapper<Integer> parallel = sequential.parallel();
+        Assert.assertTrue(parallel.isParallel());
+        Assert.assertFalse(parallel.sequential().isParallel());
+        //noinspection unchecked
+        final CollectionWrapper<Integer> kept = parallel.keep(even);
+        Assert.assertTrue(kept.isParallel());
+        //noinspection unchecked
+        Assert.assertEquals(kept.list(), sequential.keep(even).list());
+        Assert.assertEquals(parallel.transform(negate).list(), sequential.transform(negate).list());
+        Assert.assertEquals(parallel.count(even), numbers.size() / 2);
+        Assert.assertEquals(parallel.map(negate), sequential.map(negate));
+        final AtomicInteger total = new AtomicInteger(0);
+        parallel.each(new Processor<Integer>() {
+            @Override
+            public void process(Integer input) {
+                total.addAndGet(input);
+            }
+        });
+        Assert.assertEquals(total.get(), numbers.size() * (numbers.size() - 1) / 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testParallelFailureIsPropagated() throws Exception {
+        final List<Integer> numbers = new ArrayList<Integer>(Collections.nCopies(4 * CollectionWrapper.PARALLEL_THRESHOLD, 1));
+        numbers.set(numbers.size() - 1, 0);
+        with(numbers).parallel().transform(new Transformer<Integer, Integer>() {
+            @Override
+            public Integer map(Integer input) {
+                if (input == 0) {
+                    throw new IllegalArgumentException();
+                }
+                return input;
+            }
+        });
+    }
+
+    @Test
+    public void testNumericViews() throws Exception {
+        final CollectionWrapper<String> words = with("a", "bb", "ccc", "dddd", "eeeee", "ffffff");
+        final IntCollectionWrapper lengths = words.mapToInt(new ToIntTransformer<String>() {
+            @Override
+            public int map(String input) {
+                return input.length();
+            }
+        });
+        Assert.assertEquals(lengths.count(), 6);
+        Assert.assertEquals(lengths.sum(), 21L);
+        Assert.assertEquals(lengths.min(), 1);
+        Assert.assertEquals(lengths.max(), 6);
+        Assert.assertEquals(lengths.average(), 3.5);
+        Assert.assertEquals(lengths.get(-1), 6);
+        Assert.assertEquals(lengths.histogram(3), new int[]{2, 2, 2});
+        Assert.assertEquals(LongCollectionWrapper.with(5L, 1L, 3L).sort().array(), new long[]{1L, 3L, 5L});
+        Assert.assertEquals(DoubleCollectionWrapper.with(0.5, 1.5, 1.0).histogram(2), new int[]{1, 2});
+        Assert.assertTrue(Double.isNaN(IntCollectionWrapper.with().average()));
+        Assert.assertEquals(with(1, 2.5, 3L).sum(), 6.5);
+    }
+
 }
@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections;
+
+import com.mmnaseri.couteau.basics.api.Filter;
+import com.mmnaseri.couteau.basics.api.Transformer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.mmnaseri.couteau.basics.collections.CollectionWrapper.with;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 2:40 PM)
+ */
+public class LazyCollectionWrapperTest {
+
+    private static final Filter<Integer> EVEN = new Filter<Integer>() {
+        @Override
+        public boolean accepts(Integer item) {
+            return item % 2 == 0;
+        }
+    };
+
+    private static final Transformer<Integer, Integer> SQUARE = new Transformer<Integer, Integer>() {
+        @Override
+        public Integer map(Integer input) {
+            return input * input;
+        }
+    };
+
+    @Test
+    public void testSameResultsAsEagerWrapper() throws Exception {
+        final CollectionWrapper<Integer> wrapper = with(9, 4, 7, 2, 8, 1, 6, 3, 5, 10);
+        //noinspection unchecked
+        Assert.assertEquals(wrapper.lazy().keep(EVEN).transform(SQUARE).sort().take(1, 3).list(),
+                wrapper.keep(EVEN).transform(SQUARE).sort().take(1, 3).list());
+        //noinspection unchecked
+        Assert.assertEquals(wrapper.lazy().drop(EVEN).take(-2).list(), wrapper.drop(EVEN).take(-2).list());
+        Assert.assertEquals(wrapper.lazy().take(3).list(), wrapper.take(3).list());
+        Assert.assertEquals(wrapper.lazy().take(-3, -1).list(), wrapper.take(-3, -1).list());
+        Assert.assertEquals(wrapper.lazy().take(8, 12).list(), wrapper.take(8, 12).list());
+        Assert.assertEquals(wrapper.lazy().keepWhile(new Filter<Integer>() {
+            @Override
+            public boolean accepts(Integer item) {
+                return item > 3;
+            }
+        }).list(), Arrays.asList(9, 4, 7));
+        Assert.assertEquals(wrapper.lazy().dropWhile(new Filter<Integer>() {
+            @Override
+            public boolean accepts(Integer item) {
+                return item > 3;
+            }
+        }).first(), Integer.valueOf(2));
+        //noinspection unchecked
+        Assert.assertEquals(wrapper.lazy().keep(EVEN).count(), 5);
+        Assert.assertEquals(wrapper.lazy().count(EVEN), 5);
+        Assert.assertTrue(wrapper.lazy().forAll(new Filter<Integer>() {
+            @Override
+            public boolean accepts(Integer item) {
+                return item > 0;
+            }
+        }));
+        Assert.assertEquals(with(Collections.<Integer>emptyList()).lazy().first(), null);
+    }
+
+    @Test
+    public void testTerminalOperationsShortCircuit() throws Exception {
+        final AtomicInteger seen = new AtomicInteger(0);
+        final Filter<Integer> counting = new Filter<Integer>() {
+            @Override
+            public boolean accepts(Integer item) {
+                seen.incrementAndGet();
+                return item > 2;
+            }
+        };
+        //noinspection unchecked
+        final LazyCollectionWrapper<Integer> lazy = with(1, 2, 3, 4, 5, 6).lazy().keep(counting);
+        Assert.assertEquals(seen.get(), 0);
+        Assert.assertEquals(lazy.first(), Integer.valueOf(3));
+        Assert.assertEquals(seen.get(), 3);
+        seen.set(0);
+        Assert.assertEquals(lazy.take(0, 1).list(), Arrays.asList(3, 4));
+        Assert.assertEquals(seen.get(), 4);
+        seen.set(0);
+        final List<Integer> all = lazy.list();
+        Assert.assertEquals(all, Arrays.asList(3, 4, 5, 6));
+        Assert.assertEquals(seen.get(), 6);
+    }
+
+    @Test
+    public void testStreamingOverUnboundedSource() throws Exception {
+        final Iterator<Integer> naturals = new Iterator<Integer>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return next ++;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        //noinspection unchecked
+        final LazyCollectionWrapper<Integer> squares = CollectionWrapper.stream(naturals).keep(EVEN).transform(SQUARE).take(0, 3);
+        Assert.assertEquals(squares.list(), Arrays.asList(0, 4, 16, 36));
+        try {
+            squares.list();
+            Assert.fail();
+        } catch (IllegalStateException ignored) {
+        }
+        final LazyCollectionWrapper<Integer> repeatable = CollectionWrapper.stream(Arrays.asList(1, 2, 3, 4));
+        Assert.assertEquals(repeatable.count(EVEN), 2);
+        Assert.assertEquals(repeatable.find(EVEN), Integer.valueOf(2));
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections;
+
+import com.mmnaseri.couteau.basics.collections.compact.ImmutableArrayMap;
+import com.mmnaseri.couteau.basics.collections.compact.PerfectHashMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.mmnaseri.couteau.basics.collections.MapBuilder.map;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 6:30 PM)
+ */
+public class MapBuilderTest {
+
+    @Test
+    public void testSmallImmutableMap() throws Exception {
+        final Map<String, Integer> map = map(String.class).to(Integer.class).forKeys("a", "b", "a", null).andImmutableValues(1, 2, 3, 4);
+        Assert.assertTrue(map instanceof ImmutableArrayMap);
+        final Map<String, Integer> expected = map(String.class).to(Integer.class).forKeys("a", "b", "a", null).andValues(1, 2, 3, 4);
+        Assert.assertEquals(map, expected);
+        Assert.assertEquals(map.get("a"), Integer.valueOf(3));
+        Assert.assertEquals(map.get(null), Integer.valueOf(4));
+        Assert.assertNull(map.get("c"));
+    }
+
+    @Test
+    public void testLargeImmutableMapIsPerfectlyHashed() throws Exception {
+        final List<String> keys = new ArrayList<String>();
+        final List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add("key-" + i);
+            values.add(i);
+        }
+        final Map<String, Integer> map = map(String.class).to(Integer.class).forKeys(keys).andImmutableValues(values);
+        Assert.assertTrue(map instanceof PerfectHashMap);
+        Assert.assertEquals(map.size(), 1000);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(map.get("key-" + i), Integer.valueOf(i));
+        }
+        Assert.assertFalse(map.containsKey("key-1000"));
+        Assert.assertEquals(new HashMap<String, Integer>(map), map);
+    }
+
+    @Test
+    public void testCollidingKeysFallBackToHashing() throws Exception {
+        //"Aa" and "BB" share the same hash code
+        final List<String> keys = new ArrayList<String>();
+        final List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 20; i++) {
+            keys.add("Aa" + i);
+            keys.add("BB" + i);
+            values.add(i);
+            values.add(-i);
+        }
+        final Map<String, Integer> map = map(String.class).to(Integer.class).forKeys(keys).andImmutableValues(values);
+        Assert.assertFalse(map instanceof PerfectHashMap);
+        Assert.assertEquals(map.size(), 40);
+        Assert.assertEquals(map.get("BB7"), Integer.valueOf(-7));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testImmutableMapRejectsChanges() throws Exception {
+        map(String.class).to(Integer.class).forKeys("a").andImmutableValues(1).put("b", 2);
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections.compact;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 5:40 PM)
+ */
+public class Object2DoubleMapTest {
+
+    @Test
+    public void testAgainstHashMap() throws Exception {
+        final Random random = new Random(42);
+        final Object2DoubleMap<Integer> map = new Object2DoubleMap<Integer>();
+        final Map<Integer, Double> expected = new HashMap<Integer, Double>();
+        for (int i = 0; i < 100000; i++) {
+            final Integer key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(map.remove(key), expected.remove(key) != null);
+            } else {
+                final double value = random.nextDouble();
+                map.put(key, value);
+                expected.put(key, value);
+            }
+            Assert.assertEquals(map.size(), expected.size());
+        }
+        for (int i = 0; i < 500; i++) {
+            Assert.assertEquals(map.containsKey(i), expected.containsKey(i));
+            Assert.assertEquals(map.get(i, -1), expected.containsKey(i) ? expected.get(i) : -1);
+        }
+        Assert.assertEquals(new HashSet<Integer>(map.keySet()), expected.keySet());
+    }
+
+    @Test
+    public void testNullKeyAndRemovalThroughIterator() throws Exception {
+        final Object2DoubleMap<String> map = new Object2DoubleMap<String>();
+        map.put(null, 1);
+        map.put("a", 2);
+        map.put("b", 3);
+        Assert.assertEquals(map.get(null, 0), 1d);
+        final Iterator<String> iterator = map.keySet().iterator();
+        int seen = 0;
+        while (iterator.hasNext()) {
+            if (iterator.next() != null) {
+                iterator.remove();
+            }
+            seen ++;
+        }
+        Assert.assertEquals(seen, 3);
+        Assert.assertEquals(map.size(), 1);
+        Assert.assertTrue(map.containsKey(null));
+        Assert.assertFalse(map.containsKey("a"));
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections.compact;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 11:20 PM)
+ */
+public class Object2IntMapTest {
+
+    @Test
+    public void testAgainstHashMap() throws Exception {
+        final Random random = new Random(42);
+        final Object2IntMap<String> map = new Object2IntMap<String>();
+        final Map<String, Integer> expected = new HashMap<String, Integer>();
+        for (int i = 0; i < 100000; i++) {
+            final String key = random.nextInt(50) == 0 ? null : "key-" + random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(map.remove(key), expected.containsKey(key));
+                expected.remove(key);
+            } else {
+                final int value = random.nextInt();
+                map.put(key, value);
+                expected.put(key, value);
+            }
+            Assert.assertEquals(map.size(), expected.size());
+        }
+        for (String key : expected.keySet()) {
+            Assert.assertTrue(map.containsKey(key));
+            Assert.assertEquals(map.get(key, 0), expected.get(key).intValue());
+        }
+        Assert.assertEquals(map.get("missing", -1), -1);
+        Assert.assertEquals(new HashSet<String>(map.keySet()), expected.keySet());
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.basics.collections.compact;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 5:40 PM)
+ */
+public class SmallMapTest {
+
+    @Test
+    public void testAgainstHashMap() throws Exception {
+        final Random random = new Random(7);
+        final Map<String, Integer> map = new SmallMap<String, Integer>();
+        final Map<String, Integer> expected = new HashMap<String, Integer>();
+        for (int i = 0; i < 20000; i++) {
+            //the key range is just wide enough for the map to move back and forth across the threshold
+            final String key = random.nextInt(4) == 0 ? null : String.valueOf(random.nextInt(SmallMap.THRESHOLD + 4));
+            final int operation = random.nextInt(10);
+            if (operation == 0) {
+                map.clear();
+                expected.clear();
+            } else if (operation < 4) {
+                Assert.assertEquals(map.remove(key), expected.remove(key));
+            } else {
+                Assert.assertEquals(map.put(key, i), expected.put(key, i));
+            }
+            Assert.assertEquals(map.size(), expected.size());
+            Assert.assertEquals(map.get(key), expected.get(key));
+        }
+        Assert.assertEquals(map, expected);
+        Assert.assertEquals(map.hashCode(), expected.hashCode());
+    }
+
+    @Test
+    public void testIteratorRemovalVisitsEveryEntry() throws Exception {
+        final Map<String, Integer> map = new SmallMap<String, Integer>();
+        for (int i = 0; i < 5; i++) {
+            map.put(String.valueOf(i), i);
+        }
+        int visited = 0;
+        final Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, Integer> entry = iterator.next();
+            visited ++;
+            if (entry.getValue() % 2 == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(-entry.getValue());
+            }
+        }
+        Assert.assertEquals(visited, 5);
+        Assert.assertEquals(map.size(), 2);
+        Assert.assertEquals(map.get("1"), Integer.valueOf(-1));
+        Assert.assertEquals(map.get("3"), Integer.valueOf(-3));
+    }
+
+}
@@ -46,7 +46,7 @@ public class DefaultDeferred<E> implements Deferred<E> {
     private static class ResolvablePromise<E> implements Promise<E> {
 
         private final ConcurrentMap<DeferredStatus, List<Processor<?>>> callbacks;
-        private DeferredStatus status;
+        private volatile DeferredStatus status;
         private E result;
         private Failure failure;
 
@@ -83,21 +83,24 @@ public class DefaultDeferred<E> implements Deferred<E> {
         @Override
         public <F> Promise<F> onSuccess(final Transformer<E, F> callback) {
             final ResolvablePromise<F> promise = new ResolvablePromise<F>();
-            if (DeferredStatus.REJECTED.equals(status)) {
+            if (callback == null) {
                 return promise;
             }
-            if (callback != null) {
-                final Processor<E> processor = new Processor<E>() {
-                    @Override
-                    public void process(E result) {
-                        final F transformed = callback.map(result);
-                        promise.resolve(transformed);
-                    }
-                };
-                if (DeferredStatus.RESOLVED.equals(status)) {
-                    processor.process(result);
-                    callbacks.clear();
-                } else {
+            final Processor<E> processor = new Processor<E>() {
+                @Override
+                public void process(E result) {
+                    final F transformed = callback.map(result);
+                    promise.resolve(transformed);
+                }
+            };
+            //the status is checked while holding the same monitor as resolve and reject, so that a
+            //callback is either registered before the callbacks are executed, or run right away
+            final E result;
+            synchronized (this) {
+                if (DeferredStatus.REJECTED.equals(status)) {
+                    return promise;
+                }
+                if (DeferredStatus.OPEN.equals(status)) {
                     addCallback(DeferredStatus.RESOLVED, processor);
                     addCallback(DeferredStatus.REJECTED, new Processor<Object>() {
                         @Override
@@ -105,8 +108,11 @@ public class DefaultDeferred<E> implements Deferred<E> {
                             promise.reject((Failure) input);
                         }
                     });
+                    return promise;
                 }
+                result = this.result;
             }
+            processor.process(result);
             return promise;
         }
 
@@ -115,11 +121,16 @@ public class DefaultDeferred<E> implements Deferred<E> {
             if (callback == null) {
                 return this;
             }
-            if (status.equals(DeferredStatus.OPEN)) {
-                addCallback(DeferredStatus.REJECTED, callback);
-            } else if (status.equals(DeferredStatus.REJECTED)) {
+            final Failure failure;
+            synchronized (this) {
+                if (status.equals(DeferredStatus.OPEN)) {
+                    addCallback(DeferredStatus.REJECTED, callback);
+                    return this;
+                }
+                failure = this.failure;
+            }
+            if (status.equals(DeferredStatus.REJECTED)) {
                 callback.process(failure);
-                callbacks.clear();
             }
             return this;
         }
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.concurrency.manager.impl;
+
+import com.mmnaseri.couteau.concurrency.task.FutureTask;
+import com.mmnaseri.couteau.concurrency.task.Prioritized;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A priority queue of tasks that are ready to be performed, which ages the tasks it holds so that
+ * low priority work is not starved by a steady stream of more important tasks.</p>
+ *
+ * <p>Rather than periodically bumping the priority of waiting tasks, each task is ranked once, as it
+ * enters the queue, by the time it was queued minus one {@link #getAgingInterval() aging interval} for
+ * each level of {@link Prioritized priority} it has. Since all queued tasks age at the same pace, this
+ * is the same ordering that continuous aging would produce, and the queue can be kept as a plain
+ * binary heap with logarithmic insertion and removal. Tasks with the same rank are handed out in the
+ * order in which they arrived.</p>
+ *
+ * <p>This class is not thread-safe; it is expected to be guarded by the task manager that owns it.</p>
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 6:45 PM)
+ */
+class ReadyQueue {
+
+    /**
+     * The default amount of waiting (in milliseconds) that is worth one level of priority
+     */
+    public static final long DEFAULT_AGING_INTERVAL = 100;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<Entry>();
+    private long agingInterval = TimeUnit.MILLISECONDS.toNanos(DEFAULT_AGING_INTERVAL);
+    private long sequence = 0;
+
+    /**
+     * Queues the given task, ranking it by its priority
+     * @param task    the task
+     */
+    public void add(FutureTask task) {
+        final int priority = task instanceof Prioritized ? ((Prioritized) task).getPriority() : Prioritized.DEFAULT_PRIORITY;
+        queue.add(new Entry(task, System.nanoTime() - priority * agingInterval, sequence ++));
+    }
+
+    /**
+     * @return the task that should be performed next, or {@code null} if the queue is empty
+     */
+    public FutureTask poll() {
+        final Entry entry = queue.poll();
+        return entry == null ? null : entry.task;
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * @return the amount of waiting, in nanoseconds, that makes up for one level of priority
+     */
+    public long getAgingInterval() {
+        return agingInterval;
+    }
+
+    /**
+     * Changes the amount of waiting that makes up for one level of priority. This only affects
+     * tasks queued from now on.
+     * @param interval    the interval
+     * @param unit        the unit of the interval
+     */
+    public void setAgingInterval(long interval, TimeUnit unit) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Aging interval cannot be negative: " + interval);
+        }
+        agingInterval = unit.toNanos(interval);
+    }
+
+    private static class Entry implements Comparable<Entry> {
+
+        private final FutureTask task;
+        private final long rank;
+        private final long sequence;
+
+        private Entry(FutureTask task, long rank, long sequence) {
+            this.task = task;
+            this.rank = rank;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry that) {
+            //ranks are derived from System.nanoTime(), which may wrap, so we compare differences
+            final long difference = rank - that.rank;
+            if (difference != 0) {
+                return difference < 0 ? -1 : 1;
+            }
+            return sequence < that.sequence ? -1 : (sequence == that.sequence ? 0 : 1);
+        }
+
+    }
+
+}
@@ -39,9 +39,16 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <p>This task manager will allow for concurrent execution of tasks through the
@@ -108,6 +115,22 @@ import java.util.Map;
  * wherein the task manager might be forced to wait upon an entry channel for tasks to arrive you are advised
  * against using the convenience flag and rather writing your own monitoring and shutdown mechanism.</p>
  *
+ * <p>The pool of workers can be made elastic by specifying a core and a maximum number of workers (see
+ * {@link #ThreadPoolTaskManager(String, int, int, long, TimeUnit, boolean)}). The task manager then spawns
+ * new workers while tasks are ready and all workers are busy, and lets the extra workers go once they
+ * have been idle for a while. This suits tasks that spend most of their time blocked on I/O.</p>
+ *
+ * <p>Tasks implementing {@link DependentTask} are held back until all of their dependencies are done, and are
+ * queued as soon as the last of them is, without ever being checked in the meanwhile. Likewise, tasks can be
+ * made to wait for a number of promises through {@link #scheduleAfter(Task, Promise[])}. If a prerequisite
+ * fails for good, the tasks waiting on it are cancelled. Plain {@link FutureTask}s, which have no way of
+ * announcing that they have become ready, are checked whenever another task is done, as well as every
+ * {@link #FUTURE_TASK_RECHECK_INTERVAL} milliseconds.</p>
+ *
+ * <p>Ready tasks are handed out by {@link Prioritized priority}, and in the order of their scheduling among
+ * tasks of the same priority. Waiting counts in favor of a task, so that low priority tasks are eventually
+ * picked even while higher priority ones keep arriving; see {@link #setAgingInterval(long, TimeUnit)}.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/8/15, 6:07)
  */
@@ -116,20 +139,67 @@ public class ThreadPoolTaskManager implements TaskManager {
     private final static Log LOG = LogFactory.getLog(TaskManager.class);
 
     public static final String TASK_MANAGER_DEFAULT_NAME = "TaskManager";
+
+    /**
+     * The longest time (in milliseconds) the dispatcher will wait before re-checking
+     * scheduled {@link FutureTask}s that are not yet ready. Such tasks have no way of
+     * announcing that they have become ready, so this is the only case in which the
+     * dispatcher wakes up without being signalled.
+     */
+    public static final long FUTURE_TASK_RECHECK_INTERVAL = 50;
+
+    /**
+     * Guards all the bookkeeping of the task manager
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Signalled whenever a task is scheduled, a worker becomes available, or the manager is
+     * asked to shut down
+     */
+    private final Condition changed = lock.newCondition();
+
     /**
-     * Idle worker threads
+     * Idle worker threads, in the order in which they became idle
      */
     private final List<TaskWorker> idle = new ArrayList<TaskWorker>();
 
+    /**
+     * The time (as given by {@link System#nanoTime()}) at which each idle worker became idle, kept
+     * at the same index as the worker in {@link #idle}
+     */
+    private long[] idleSince = new long[4];
+
+    /**
+     * Workers dismissed for having been idle too long, which may still be on their way out
+     */
+    private final List<TaskWorker> dismissed = new ArrayList<TaskWorker>();
+
     /**
      * Worker threads actively assigned a task
      */
     private final Map<Task, TaskWorker> working = new HashMap<Task, TaskWorker>();
 
     /**
-     * Unprocessed tasks
+     * Unprocessed tasks that can be performed right away, ordered by their priority
+     */
+    private final ReadyQueue ready = new ReadyQueue();
+
+    /**
+     * Unprocessed tasks that were not ready when they were last checked
      */
-    private final List<FutureTask> tasks = new ArrayList<FutureTask>();
+    private final List<FutureTask> waiting = new ArrayList<FutureTask>();
+
+    /**
+     * Every task that has been scheduled and not yet finished, so that tasks depending on
+     * it can be released once it is done
+     */
+    private final Map<Task, ScheduledTask> pending = new IdentityHashMap<Task, ScheduledTask>();
+
+    /**
+     * The number of tasks held back until their prerequisites are done
+     */
+    private int blocked = 0;
 
     /**
      * Flag determining whether the task manager is running or not
@@ -149,8 +219,25 @@ public class ThreadPoolTaskManager implements TaskManager {
      */
     private final boolean autoShutdown;
 
-    private int scheduled = 0;
-    private int done = 0;
+    /**
+     * The number of workers that are kept around even when there is nothing to do
+     */
+    private final int corePoolSize;
+
+    /**
+     * The largest number of workers this task manager will ever have
+     */
+    private final int maximumPoolSize;
+
+    /**
+     * How long (in nanoseconds) a worker beyond the {@link #corePoolSize core pool} is kept idle
+     * before it is dismissed
+     */
+    private final long keepAlive;
+
+    private int workerSequence = 0;
+    private volatile int scheduled = 0;
+    private volatile int done = 0;
 
     /**
      * Instantiates the task manager by setting the number of worker threads to the
@@ -199,16 +286,43 @@ public class ThreadPoolTaskManager implements TaskManager {
      *                      enabled.
      */
     public ThreadPoolTaskManager(String name, int workers, boolean autoShutdown) {
+        this(name, workers, workers, 0, TimeUnit.MILLISECONDS, autoShutdown);
+    }
+
+    /**
+     * <p>Instantiates an elastic task manager, whose number of workers follows the amount of
+     * work at hand.</p>
+     * <p>The task manager starts out with the core number of workers. Whenever a task is ready to
+     * be performed and all workers are busy, a new worker is spawned, up until the maximum number
+     * of workers is reached. Workers beyond the core number are dismissed once they have been idle
+     * for the given keep-alive time.</p>
+     * @param name               the name of the task manager
+     * @param corePoolSize       the number of workers that are kept even when idle
+     * @param maximumPoolSize    the largest number of workers that can be spawned
+     * @param keepAlive          how long a worker beyond the core number can stay idle
+     * @param unit               the unit of the keep-alive time
+     * @param autoShutdown       flag determining whether or not auto-shutdown should be
+     *                           enabled.
+     */
+    public ThreadPoolTaskManager(String name, int corePoolSize, int maximumPoolSize, long keepAlive, TimeUnit unit, boolean autoShutdown) {
+        if (corePoolSize < 0 || maximumPoolSize < 1 || maximumPoolSize < corePoolSize || keepAlive < 0) {
+            throw new IllegalArgumentException("Invalid pool bounds: " + corePoolSize + ".." + maximumPoolSize + " with keep-alive of " + keepAlive);
+        }
         this.name = name;
         this.autoShutdown = autoShutdown;
-        LOG.info("Initializing task manager " + name + " with " + workers + " worker(s)");
+        this.corePoolSize = corePoolSize;
+        this.maximumPoolSize = maximumPoolSize;
+        this.keepAlive = unit.toNanos(keepAlive);
+        if (corePoolSize == maximumPoolSize) {
+            LOG.info("Initializing task manager " + name + " with " + corePoolSize + " worker(s)");
+        } else {
+            LOG.info("Initializing task manager " + name + " with " + corePoolSize + " to " + maximumPoolSize + " worker(s)");
+        }
         if (autoShutdown) {
             LOG.trace("Auto-shutdown is set to true");
         }
-        for (int i = 0; i < workers; i ++) {
-            final TaskWorker worker = new TaskWorker(this, getName() + ".worker." + i);
-            idle.add(worker);
-            worker.start();
+        for (int i = 0; i < corePoolSize; i ++) {
+            addWorker();
         }
     }
 
@@ -219,13 +333,33 @@ public class ThreadPoolTaskManager implements TaskManager {
     @Override
     public void schedule(Task task) {
         LOG.info("Scheduling a new task");
-        synchronized (tasks) {
-            if (task instanceof Prioritized) {
-                tasks.add(0, new DelegatedTask(task));
-            } else {
-                tasks.add(new DelegatedTask(task));
-            }
-            scheduled ++;
+        lock.lock();
+        try {
+            register(task, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Schedules the given task to be executed once all of the given promises have been resolved. Should
+     * any of the promises be rejected, the task, as well as all the tasks depending on it, is cancelled.
+     * @param task             the task that is to be executed
+     * @param prerequisites    the promises the task is waiting on
+     */
+    public void scheduleAfter(Task task, Promise<?>... prerequisites) {
+        LOG.info("Scheduling a new task to be executed once its prerequisites are met");
+        final ScheduledTask scheduledTask;
+        lock.lock();
+        try {
+            scheduledTask = register(task, prerequisites.length);
+        } finally {
+            lock.unlock();
+        }
+        //the callbacks are registered without holding the lock, since a promise being resolved runs its
+        //callbacks while holding its own monitor, and the callbacks in turn need the lock
+        for (Promise<?> prerequisite : prerequisites) {
+            awaitPrerequisite(scheduledTask, prerequisite);
         }
     }
 
@@ -252,6 +386,11 @@ public class ThreadPoolTaskManager implements TaskManager {
                 public void perform() throws TaskFailureException {
                     callable.perform();
                 }
+
+                @Override
+                public int getPriority() {
+                    return ((Prioritized) task).getPriority();
+                }
             });
         } else {
             schedule(callable);
@@ -288,15 +427,20 @@ public class ThreadPoolTaskManager implements TaskManager {
      * @throws TaskContextException if the task has not been scheduled with this task manager
      */
     @Override
-    public synchronized void done(Task task) throws TaskContextException {
+    public void done(Task task) throws TaskContextException {
         LOG.info("Task finished. Removing task from queue.");
-        if (!working.containsKey(task)) {
-            throw new TaskContextException(this, task);
+        lock.lock();
+        try {
+            free(task);
+            final ScheduledTask scheduledTask = finish(task);
+            if (scheduledTask != null && scheduledTask.dependents != null) {
+                for (ScheduledTask dependent : scheduledTask.dependents) {
+                    satisfy(dependent);
+                }
+            }
+        } finally {
+            lock.unlock();
         }
-        final TaskWorker worker = working.get(task);
-        working.remove(task);
-        idle.add(worker);
-        done ++;
     }
 
     /**
@@ -309,9 +453,23 @@ public class ThreadPoolTaskManager implements TaskManager {
     public void fail(Task task, Exception exception) throws TaskContextException {
         LOG.warn("Failed to carry out task properly.");
         LOG.debug(exception);
-        done(task);
-        if (running && ((RetryingTask) task).shouldRetry(exception)) {
-            schedule(task);
+        lock.lock();
+        try {
+            free(task);
+            if (running && ((RetryingTask) task).shouldRetry(exception)) {
+                //the task is queued again as it is, so that tasks depending on it keep waiting for it
+                scheduled ++;
+                enqueue((FutureTask) task);
+                return;
+            }
+            final ScheduledTask scheduledTask = finish(task);
+            if (scheduledTask != null && scheduledTask.dependents != null) {
+                for (ScheduledTask dependent : scheduledTask.dependents) {
+                    cancel(dependent);
+                }
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -319,9 +477,15 @@ public class ThreadPoolTaskManager implements TaskManager {
      * Shuts down the task manager gracefully
      */
     @Override
-    public synchronized void shutdown() {
+    public void shutdown() {
         LOG.info("Requesting shutdown for task manager: " + getName());
-        running = false;
+        lock.lock();
+        try {
+            running = false;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -349,62 +513,82 @@ public class ThreadPoolTaskManager implements TaskManager {
     @Override
     public void run() {
         LOG.info("Starting to process task incoming queue");
-        if (tasks.isEmpty() && autoShutdown) {
-            LOG.warn("Task manager is in auto-shutdown mode and no tasks have been scheduled.");
-        }
-        while (running) {
-            synchronized (tasks) {
-                if (autoShutdown && tasks.isEmpty()) {
+        lock.lock();
+        try {
+            if (ready.isEmpty() && waiting.isEmpty() && autoShutdown) {
+                LOG.warn("Task manager is in auto-shutdown mode and no tasks have been scheduled.");
+            }
+            while (running) {
+                //tasks still being worked on might yet be retried, so we wait for them, too
+                if (autoShutdown && ready.isEmpty() && waiting.isEmpty() && working.isEmpty() && blocked == 0) {
                     shutdown();
                     continue;
                 }
-            }
-            //we wait for a task to become available
-            final FutureTask task = nextTask();
-            final TaskWorker worker = task != null ? nextWorker(task) : null;
-            if (task == null || worker == null) {
-                try {
-                    //if no task or no free worker is available sleep for some time
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    LOG.error("Task manager was interrupted externally. Shutting down.");
-                    LOG.debug(e);
-                    //if we are interrupted, we should shut down the task manager
-                    shutdown();
+                dismissExpiredWorkers();
+                //we look for a task that is ready, as long as there is someone to hand it to,
+                //or we are allowed to spawn someone
+                final boolean available = !idle.isEmpty() || getPoolSize() < maximumPoolSize;
+                final FutureTask task = available ? nextTask() : null;
+                if (task == null) {
+                    long timeout = Long.MAX_VALUE;
+                    if (available && !waiting.isEmpty()) {
+                        //all pending tasks are waiting on their prerequisites
+                        timeout = TimeUnit.MILLISECONDS.toNanos(FUTURE_TASK_RECHECK_INTERVAL);
+                    }
+                    if (!idle.isEmpty() && getPoolSize() > corePoolSize) {
+                        //we need to wake up in time to dismiss the longest idle worker
+                        timeout = Math.min(timeout, idleSince[0] + keepAlive - System.nanoTime());
+                    }
+                    try {
+                        if (timeout == Long.MAX_VALUE) {
+                            //nothing can change until we are signalled
+                            changed.await();
+                        } else if (timeout > 0) {
+                            changed.awaitNanos(timeout);
+                        }
+                    } catch (InterruptedException e) {
+                        LOG.error("Task manager was interrupted externally. Shutting down.");
+                        LOG.debug(e);
+                        //if we are interrupted, we should shut down the task manager
+                        shutdown();
+                    }
+                    continue;
                 }
-                continue;
-            }
-            //a task is available for performing
-            LOG.info("Assigning the task to worker " + worker.getName());
-            worker.assign(task);
-            //noinspection SynchronizationOnLocalVariableOrMethodParameter
-            synchronized (worker) {
-                LOG.debug("Notifying the worker to perform the task");
-                //we tell the worker to wake up
-                worker.notify();
+                //a task is available for performing
+                if (idle.isEmpty()) {
+                    //every worker is busy, so the pool grows to meet the backlog
+                    addWorker();
+                }
+                final TaskWorker worker = nextWorker(task);
+                LOG.info("Assigning the task to worker " + worker.getName());
+                worker.assign(task);
             }
-        }
-        LOG.info("Waiting for all works in progress to finish gracefully ...");
-        //we have been told to shut the manager down
-        //we first wait for active workers to gracefully finish
-        while (!working.isEmpty()) {
-            try {
-                Thread.sleep(250);
-            } catch (InterruptedException ignored) {
+            LOG.info("Waiting for all works in progress to finish gracefully ...");
+            //we have been told to shut the manager down
+            //we first wait for active workers to gracefully finish
+            while (!working.isEmpty()) {
+                changed.awaitUninterruptibly();
             }
-        }
-        LOG.info("Dismissing idle workers ...");
-        //we then dismiss all idle workers
-        for (TaskWorker worker : idle) {
-            LOG.trace("Dismissing worker " + worker.getName());
-            worker.dismiss();
-            //noinspection SynchronizationOnLocalVariableOrMethodParameter
-            synchronized (worker) {
-                worker.notify();
+            LOG.info("Dismissing idle workers ...");
+            //we then dismiss all idle workers
+            for (TaskWorker worker : idle) {
+                LOG.trace("Dismissing worker " + worker.getName());
+                worker.dismiss();
             }
+        } finally {
+            lock.unlock();
         }
         LOG.info("Waiting for all worker threads to gather together");
-        for (TaskWorker worker : idle) {
+        final List<TaskWorker> workers = new ArrayList<TaskWorker>();
+        lock.lock();
+        try {
+            workers.addAll(idle);
+            workers.addAll(dismissed);
+            dismissed.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (TaskWorker worker : workers) {
             try {
                 worker.join();
             } catch (InterruptedException ignored) {
@@ -413,27 +597,255 @@ public class ThreadPoolTaskManager implements TaskManager {
     }
 
     private FutureTask nextTask() {
-        for (FutureTask task : tasks) {
+        final Iterator<FutureTask> iterator = waiting.iterator();
+        while (iterator.hasNext()) {
+            final FutureTask task = iterator.next();
             if (task.isReady()) {
-                LOG.trace("Picking a task to be executed.");
-                return task;
+                iterator.remove();
+                ready.add(task);
+            }
+        }
+        final FutureTask task = ready.poll();
+        if (task != null) {
+            LOG.trace("Picking a task to be executed.");
+        } else {
+            LOG.trace("No tasks are ready to be executed yet.");
+        }
+        return task;
+    }
+
+    /**
+     * Picks the worker that became idle most recently, so that the ones that have been idle
+     * the longest are left to be dismissed if the pool is larger than it needs to be
+     */
+    private TaskWorker nextWorker(FutureTask task) {
+        final TaskWorker worker = idle.remove(idle.size() - 1);
+        working.put(task, worker);
+        LOG.trace("Found a worker to perform the task");
+        return worker;
+    }
+
+    /**
+     * Registers a newly scheduled task, holding it back for as long as its dependencies, and the
+     * given number of other prerequisites, are not done. Must be called while holding the lock.
+     * @param task             the task
+     * @param prerequisites    the number of prerequisites other than the dependencies of the task
+     * @return the bookkeeping for the task
+     */
+    private ScheduledTask register(Task task, int prerequisites) {
+        final ScheduledTask scheduledTask = new ScheduledTask(new DelegatedTask(task));
+        scheduledTask.remaining = prerequisites;
+        if (task instanceof DependentTask) {
+            for (Task dependency : ((DependentTask) task).getDependencies()) {
+                final ScheduledTask prerequisite = pending.get(dependency);
+                if (prerequisite != null) {
+                    prerequisite.getDependents().add(scheduledTask);
+                    scheduledTask.remaining ++;
+                }
             }
         }
-        LOG.trace("No tasks are ready to be executed yet.");
-        return null;
-    }
-
-    private synchronized TaskWorker nextWorker(FutureTask task) {
-        if (!idle.isEmpty()) {
-            final TaskWorker worker = idle.get(0);
-            idle.remove(worker);
-            working.put(task, worker);
-            tasks.remove(task);
-            LOG.trace("Found a worker to perform the task");
-            return worker;
+        pending.put(task, scheduledTask);
+        scheduled ++;
+        if (scheduledTask.remaining == 0) {
+            enqueue(scheduledTask.task);
+        } else {
+            blocked ++;
+        }
+        return scheduledTask;
+    }
+
+    private <E> void awaitPrerequisite(final ScheduledTask scheduledTask, Promise<E> prerequisite) {
+        prerequisite.then(new Processor<E>() {
+            @Override
+            public void process(E result) {
+                lock.lock();
+                try {
+                    satisfy(scheduledTask);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }, new Processor<Failure>() {
+            @Override
+            public void process(Failure failure) {
+                lock.lock();
+                try {
+                    cancel(scheduledTask);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Hands a task that has no more prerequisites to the dispatcher
+     * @param task    the task
+     */
+    private void enqueue(FutureTask task) {
+        if (task.isReady()) {
+            ready.add(task);
+        } else {
+            waiting.add(task);
+        }
+        changed.signal();
+    }
+
+    /**
+     * Marks one of the prerequisites of the given task as met, releasing it if it was the last one
+     * @param scheduledTask    the task
+     */
+    private void satisfy(ScheduledTask scheduledTask) {
+        if (scheduledTask.cancelled || scheduledTask.remaining == 0) {
+            return;
+        }
+        scheduledTask.remaining --;
+        if (scheduledTask.remaining == 0) {
+            blocked --;
+            enqueue(scheduledTask.task);
+        }
+    }
+
+    /**
+     * Cancels the given task, which is being held back for a prerequisite that will never be met,
+     * along with every task that depends on it
+     * @param scheduledTask    the task
+     */
+    private void cancel(ScheduledTask scheduledTask) {
+        final List<ScheduledTask> cancelled = new ArrayList<ScheduledTask>();
+        cancelled.add(scheduledTask);
+        while (!cancelled.isEmpty()) {
+            final ScheduledTask current = cancelled.remove(cancelled.size() - 1);
+            if (current.cancelled || current.remaining == 0) {
+                continue;
+            }
+            LOG.warn("Cancelling a task since one of its prerequisites has failed");
+            current.cancelled = true;
+            blocked --;
+            //cancelled tasks are as good as done, as far as the status of the task manager goes
+            done ++;
+            finish(current.task);
+            if (current.dependents != null) {
+                cancelled.addAll(current.dependents);
+            }
+        }
+        changed.signalAll();
+    }
+
+    /**
+     * Removes the bookkeeping for a task that has been finished with
+     * @param task    the task, as wrapped by this task manager
+     * @return the bookkeeping for the task, or {@code null} if the task has since been scheduled anew
+     */
+    private ScheduledTask finish(Task task) {
+        final Task original = ((DelegatedTask) task).getTask();
+        final ScheduledTask scheduledTask = pending.get(original);
+        if (scheduledTask == null || scheduledTask.task != task) {
+            return null;
+        }
+        pending.remove(original);
+        return scheduledTask;
+    }
+
+    /**
+     * Frees the worker that was performing the given task
+     * @param task    the task
+     * @throws TaskContextException if the task was not being performed by any of the workers
+     */
+    private void free(Task task) throws TaskContextException {
+        final TaskWorker worker = working.remove(task);
+        if (worker == null) {
+            throw new TaskContextException(this, task);
+        }
+        markIdle(worker);
+        done ++;
+        //a worker is free and, the task having been done, some future task might now be ready
+        changed.signalAll();
+    }
+
+    /**
+     * Spawns a new idle worker
+     */
+    private void addWorker() {
+        final TaskWorker worker = new TaskWorker(this, getName() + ".worker." + workerSequence ++);
+        LOG.debug("Spawning worker " + worker.getName());
+        markIdle(worker);
+        worker.start();
+    }
+
+    /**
+     * Adds the worker to the end of the idle workers, noting the time at which it became idle
+     * @param worker    the worker
+     */
+    private void markIdle(TaskWorker worker) {
+        if (idle.size() == idleSince.length) {
+            idleSince = Arrays.copyOf(idleSince, idleSince.length * 2);
+        }
+        idleSince[idle.size()] = System.nanoTime();
+        idle.add(worker);
+    }
+
+    /**
+     * Dismisses the workers beyond the core pool that have been idle for longer than they should
+     */
+    private void dismissExpiredWorkers() {
+        final long now = System.nanoTime();
+        while (!idle.isEmpty() && getPoolSize() > corePoolSize && now - idleSince[0] >= keepAlive) {
+            final TaskWorker worker = idle.remove(0);
+            System.arraycopy(idleSince, 1, idleSince, 0, idle.size());
+            LOG.debug("Dismissing worker " + worker.getName() + " after it has been idle for too long");
+            worker.dismiss();
+            dismissed.add(worker);
+        }
+        //workers that are already gone need not be joined when the task manager is done
+        final Iterator<TaskWorker> iterator = dismissed.iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().isAlive()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of workers currently spawned by this task manager, whether idle or busy
+     */
+    public int getPoolSize() {
+        lock.lock();
+        try {
+            return idle.size() + working.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of workers that are kept even when idle
+     */
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    /**
+     * @return the largest number of workers this task manager will spawn
+     */
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * Changes how much waiting makes up for one level of priority when picking the next task.
+     * Aging keeps low priority tasks from being starved by a steady stream of higher priority ones.
+     * @param interval    the amount of waiting worth one level of priority
+     * @param unit        the unit of the interval
+     * @see Prioritized
+     */
+    public void setAgingInterval(long interval, TimeUnit unit) {
+        lock.lock();
+        try {
+            ready.setAgingInterval(interval, unit);
+        } finally {
+            lock.unlock();
         }
-        LOG.trace("No idle workers to perform the task were found");
-        return null;
     }
 
     /**
@@ -444,4 +856,31 @@ public class ThreadPoolTaskManager implements TaskManager {
         return name;
     }
 
+    /**
+     * The bookkeeping for a scheduled task, linking it to the tasks waiting on it
+     */
+    private static class ScheduledTask {
+
+        private final DelegatedTask task;
+        private List<ScheduledTask> dependents;
+
+        /**
+         * The number of prerequisites of the task that are not met yet
+         */
+        private int remaining = 0;
+        private boolean cancelled = false;
+
+        private ScheduledTask(DelegatedTask task) {
+            this.task = task;
+        }
+
+        private List<ScheduledTask> getDependents() {
+            if (dependents == null) {
+                dependents = new ArrayList<ScheduledTask>();
+            }
+            return dependents;
+        }
+
+    }
+
 }
@@ -0,0 +1,622 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.concurrency.manager.impl;
+
+import com.mmnaseri.couteau.basics.api.Processor;
+import com.mmnaseri.couteau.concurrency.deferred.Deferred;
+import com.mmnaseri.couteau.concurrency.deferred.Failure;
+import com.mmnaseri.couteau.concurrency.deferred.Promise;
+import com.mmnaseri.couteau.concurrency.deferred.impl.DefaultDeferred;
+import com.mmnaseri.couteau.concurrency.error.TaskContextException;
+import com.mmnaseri.couteau.concurrency.error.TaskFailureException;
+import com.mmnaseri.couteau.concurrency.manager.TaskManager;
+import com.mmnaseri.couteau.concurrency.manager.TaskManagerStatus;
+import com.mmnaseri.couteau.concurrency.task.DeferredCallable;
+import com.mmnaseri.couteau.concurrency.task.FutureTask;
+import com.mmnaseri.couteau.concurrency.task.RetryingTask;
+import com.mmnaseri.couteau.concurrency.task.Task;
+import com.mmnaseri.couteau.concurrency.task.impl.DelegatedTask;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>This task manager spreads the work over a fixed number of worker threads, each of which keeps a
+ * deque of its own tasks. Tasks scheduled from within a task that is being performed by one of the
+ * workers (for instance, through {@link #defer(DeferredCallable)}) are pushed onto that worker's deque
+ * without touching any shared state, and the worker will pick up the most recently scheduled of them
+ * first. Tasks scheduled from any other thread are placed on a shared submission queue. A worker that
+ * runs out of work of its own takes from the submission queue, and failing that, steals the oldest task
+ * from another worker's deque.</p>
+ *
+ * <p>This makes this task manager a better fit than the {@link ThreadPoolTaskManager} for a large number
+ * of fine grained tasks, especially those that break down into further tasks, since workers only contend
+ * with each other when one of them is out of work. On the other hand, tasks are not picked up in any
+ * particular order, and {@link com.mmnaseri.couteau.concurrency.task.Prioritized priorities} are not
+ * honored.</p>
+ *
+ * <p>{@link FutureTask}s that are not yet ready when they are picked up are put aside and checked again
+ * whenever another task completes. {@link RetryingTask}s that fail are rescheduled as long as the task
+ * manager is still running, and will be picked up by the worker that saw them fail.</p>
+ *
+ * <p>As with the {@link ThreadPoolTaskManager}, the task manager does its work as long as its
+ * {@link #run()} method is running, which is expected to happen on a dedicated thread. The workers are
+ * started when the task manager is run, and are stopped when it is {@link #shutdown() shut down}, after
+ * they have finished whatever they are performing at the time. In auto-shutdown mode, the task manager
+ * shuts down once all the workers have run out of tasks to perform.</p>
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 7:30 PM)
+ */
+public class WorkStealingTaskManager implements TaskManager {
+
+    private final static Log LOG = LogFactory.getLog(TaskManager.class);
+
+    public static final String TASK_MANAGER_DEFAULT_NAME = "WorkStealingTaskManager";
+
+    /**
+     * The longest time (in milliseconds) an idle worker waits before checking tasks that
+     * were put aside for not being ready
+     */
+    public static final long FUTURE_TASK_RECHECK_INTERVAL = 50;
+
+    /**
+     * The name of this task manager
+     */
+    private final String name;
+
+    /**
+     * Flag determining whether the task manager should quit as soon as there are no more tasks at hand.
+     */
+    private final boolean autoShutdown;
+
+    /**
+     * The workers of this task manager
+     */
+    private final Worker[] workers;
+
+    /**
+     * Tasks scheduled from outside the workers
+     */
+    private final Queue<FutureTask> submissions = new ConcurrentLinkedQueue<FutureTask>();
+
+    /**
+     * Number of tasks scheduled from outside the workers. Tasks scheduled by the workers
+     * are counted by the workers themselves.
+     */
+    private final AtomicInteger submitted = new AtomicInteger(0);
+
+    /**
+     * Guards idling workers, tasks that are not ready, and the running state
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Signalled when there might be new work for idle workers, or when the task manager stops running
+     */
+    private final Condition work = lock.newCondition();
+
+    /**
+     * Signalled when the task manager stops running
+     */
+    private final Condition stopped = lock.newCondition();
+
+    /**
+     * Tasks that were picked up before they were ready
+     */
+    private final List<FutureTask> waiting = new ArrayList<FutureTask>();
+
+    /**
+     * The number of tasks in {@link #waiting}, so that it can be checked without locking
+     */
+    private volatile int waitingCount = 0;
+
+    /**
+     * The number of workers waiting for work
+     */
+    private volatile int sleeping = 0;
+
+    private volatile boolean running = true;
+
+    /**
+     * Instantiates the task manager with one worker for each available processor
+     */
+    public WorkStealingTaskManager() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Instantiates the task manager with the given number of workers
+     * @param workers    the number of worker threads
+     */
+    public WorkStealingTaskManager(int workers) {
+        this(workers, false);
+    }
+
+    /**
+     * Instantiates the task manager with the given number of workers and the default name
+     * @param workers         the number of worker threads
+     * @param autoShutdown    whether the task manager should shut down as soon as it runs out of tasks
+     */
+    public WorkStealingTaskManager(int workers, boolean autoShutdown) {
+        this(TASK_MANAGER_DEFAULT_NAME, workers, autoShutdown);
+    }
+
+    /**
+     * Instantiates the task manager
+     * @param name            the name of the task manager
+     * @param workers         the number of worker threads
+     * @param autoShutdown    whether the task manager should shut down as soon as it runs out of tasks
+     */
+    public WorkStealingTaskManager(String name, int workers, boolean autoShutdown) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        this.name = name;
+        this.autoShutdown = autoShutdown;
+        LOG.info("Initializing task manager " + name + " with " + workers + " worker(s)");
+        this.workers = new Worker[workers];
+        for (int i = 0; i < workers; i++) {
+            this.workers[i] = new Worker(i);
+        }
+    }
+
+    /**
+     * Schedules the given task to be executed. When called from within a task being performed by this
+     * task manager, the task is queued locally to the worker performing it.
+     * @param task    the task that is to be executed
+     */
+    @Override
+    public void schedule(Task task) {
+        LOG.trace("Scheduling a new task");
+        enqueue(new DelegatedTask(task));
+    }
+
+    /**
+     * Queues the task locally to the calling worker, or on the submission queue if called from
+     * outside the workers
+     * @param futureTask    the task
+     */
+    private void enqueue(FutureTask futureTask) {
+        final Worker worker = currentWorker();
+        if (worker != null) {
+            worker.scheduled ++;
+            worker.deque.push(futureTask);
+        } else {
+            submitted.incrementAndGet();
+            submissions.add(futureTask);
+        }
+        if (sleeping > 0) {
+            wakeUp();
+        }
+    }
+
+    @Override
+    public <E> Promise<E> defer(final DeferredCallable<E> task) {
+        LOG.trace("Deferring a task to be executed at a later time");
+        final Deferred<E> deferred = new DefaultDeferred<E>();
+        schedule(new Task() {
+            @Override
+            public void perform() throws TaskFailureException {
+                try {
+                    deferred.resolve(task.execute());
+                } catch (Throwable e) {
+                    LOG.error("Deferred task failed");
+                    LOG.error(e);
+                    deferred.reject(e);
+                }
+            }
+        });
+        return deferred.getPromise();
+    }
+
+    @Override
+    public <E> Promise<E> defer(final Promise<E> task) {
+        final DefaultDeferred<E> deferred = new DefaultDeferred<E>();
+        LOG.trace("Deferring a promised task for a later time");
+        schedule(new Task() {
+            @Override
+            public void perform() throws TaskFailureException {
+                task.then(new Processor<E>() {
+                    @Override
+                    public void process(E result) {
+                        deferred.resolve(result);
+                    }
+                }, new Processor<Failure>() {
+                    @Override
+                    public void process(Failure failure) {
+                        deferred.reject(failure);
+                    }
+                });
+            }
+        });
+        return deferred.getPromise();
+    }
+
+    /**
+     * Marks the given task as done within this task manager
+     * @param task    the task that was completed
+     * @throws TaskContextException if the task is not the one being performed by the calling worker
+     */
+    @Override
+    public void done(Task task) throws TaskContextException {
+        final Worker worker = currentWorker();
+        if (worker == null || worker.current == null || worker.current != task) {
+            throw new TaskContextException(this, task);
+        }
+        worker.current = null;
+        worker.done ++;
+    }
+
+    /**
+     * Signals a failure in carrying out the task
+     * @param task         the task that has failed
+     * @param exception    the error leading to this failure
+     * @throws TaskContextException if the task is not the one being performed by the calling worker
+     */
+    @Override
+    public void fail(Task task, Exception exception) throws TaskContextException {
+        LOG.warn("Failed to carry out task properly.");
+        LOG.debug(exception);
+        done(task);
+        if (running && task instanceof RetryingTask && ((RetryingTask) task).shouldRetry(exception)) {
+            //the task is put back as it is, rather than wrapped once more with every attempt
+            enqueue(task instanceof FutureTask ? (FutureTask) task : new DelegatedTask(task));
+        }
+    }
+
+    /**
+     * Shuts down the task manager gracefully
+     */
+    @Override
+    public void shutdown() {
+        LOG.info("Requesting shutdown for task manager: " + getName());
+        lock.lock();
+        try {
+            stop();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public TaskManagerStatus getStatus() {
+        return new TaskManagerStatus() {
+
+            @Override
+            public int getTasks() {
+                int scheduled = submitted.get();
+                for (Worker worker : workers) {
+                    scheduled += worker.scheduled;
+                }
+                return scheduled;
+            }
+
+            @Override
+            public int getDone() {
+                int done = 0;
+                for (Worker worker : workers) {
+                    done += worker.done;
+                }
+                return done;
+            }
+
+            @Override
+            public int getRemaining() {
+                return getTasks() - getDone();
+            }
+
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void run() {
+        LOG.info("Starting workers for task manager " + getName());
+        if (autoShutdown && submissions.isEmpty()) {
+            LOG.warn("Task manager is in auto-shutdown mode and no tasks have been scheduled.");
+        }
+        for (Worker worker : workers) {
+            worker.start();
+        }
+        lock.lock();
+        try {
+            while (running) {
+                stopped.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        LOG.info("Waiting for all worker threads to gather together");
+        for (Worker worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+
+    /**
+     * @return the worker of this task manager that is calling this method, or {@code null}
+     */
+    private Worker currentWorker() {
+        final Thread thread = Thread.currentThread();
+        if (thread instanceof Worker && ((Worker) thread).getManager() == this) {
+            return (Worker) thread;
+        }
+        return null;
+    }
+
+    private void wakeUp() {
+        lock.lock();
+        try {
+            work.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the task manager and wakes everyone up to take notice. Must be called while holding the lock.
+     */
+    private void stop() {
+        running = false;
+        work.signalAll();
+        stopped.signalAll();
+    }
+
+    /**
+     * @return {@code true} if any task is queued anywhere
+     */
+    private boolean hasWork() {
+        if (!submissions.isEmpty()) {
+            return true;
+        }
+        for (Worker worker : workers) {
+            if (!worker.deque.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts aside a task that is not ready yet
+     * @param task    the task
+     */
+    private void putAside(FutureTask task) {
+        lock.lock();
+        try {
+            waiting.add(task);
+            waitingCount = waiting.size();
+        } finally {
+            lock.unlock();
+        }
+        //another worker might have just finished checking on the tasks put aside, so we check once
+        //more to make sure the task is not missed
+        recheckWaiting();
+    }
+
+    /**
+     * Moves the tasks that were put aside and have since become ready back into the submission queue
+     */
+    private void recheckWaiting() {
+        if (waitingCount == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            boolean promoted = false;
+            final Iterator<FutureTask> iterator = waiting.iterator();
+            while (iterator.hasNext()) {
+                final FutureTask task = iterator.next();
+                if (task.isReady()) {
+                    iterator.remove();
+                    submissions.add(task);
+                    promoted = true;
+                }
+            }
+            waitingCount = waiting.size();
+            if (promoted) {
+                work.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for work to become available
+     * @return {@code false} if the worker should quit
+     */
+    private boolean idle() {
+        lock.lock();
+        try {
+            if (!running) {
+                return false;
+            }
+            sleeping ++;
+            try {
+                //we check once more, now that anyone scheduling a task will know to wake us up
+                if (hasWork()) {
+                    return true;
+                }
+                if (waiting.isEmpty()) {
+                    if (autoShutdown && sleeping == workers.length) {
+                        LOG.info("All workers are out of tasks. Shutting down.");
+                        stop();
+                        return false;
+                    }
+                    work.await();
+                } else {
+                    work.await(FUTURE_TASK_RECHECK_INTERVAL, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                LOG.warn("Worker was interrupted while waiting for work");
+            } finally {
+                sleeping --;
+            }
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A deque of tasks owned by a single worker. The owner works on the tail of the deque,
+     * while other workers steal from its head.
+     */
+    private static class TaskDeque {
+
+        private final ArrayDeque<FutureTask> tasks = new ArrayDeque<FutureTask>();
+
+        public synchronized void push(FutureTask task) {
+            tasks.addLast(task);
+        }
+
+        public synchronized FutureTask pop() {
+            return tasks.pollLast();
+        }
+
+        public synchronized FutureTask steal() {
+            return tasks.pollFirst();
+        }
+
+        public synchronized boolean isEmpty() {
+            return tasks.isEmpty();
+        }
+
+    }
+
+    private class Worker extends Thread {
+
+        private final int index;
+        private final TaskDeque deque = new TaskDeque();
+        private int seed;
+
+        /**
+         * The task being performed by this worker
+         */
+        private volatile Task current;
+
+        /**
+         * These counters are only ever written to by the worker itself
+         */
+        private volatile int scheduled = 0;
+        private volatile int done = 0;
+
+        private Worker(int index) {
+            super(WorkStealingTaskManager.this.getName() + ".worker." + index);
+            this.index = index;
+            this.seed = index + 1;
+        }
+
+        private WorkStealingTaskManager getManager() {
+            return WorkStealingTaskManager.this;
+        }
+
+        @Override
+        public void run() {
+            LOG.info("Starting up the worker thread");
+            while (running) {
+                final FutureTask task = nextTask();
+                if (task == null) {
+                    if (!idle()) {
+                        break;
+                    }
+                    //tasks put aside may have become ready while we were idle, without
+                    //any other task having been performed
+                    recheckWaiting();
+                    continue;
+                }
+                if (!task.isReady()) {
+                    putAside(task);
+                    continue;
+                }
+                perform(task);
+                recheckWaiting();
+            }
+            LOG.info("Worker stopped.");
+        }
+
+        private FutureTask nextTask() {
+            FutureTask task = deque.pop();
+            if (task == null) {
+                task = submissions.poll();
+            }
+            if (task == null && workers.length > 1) {
+                //we start stealing from a random victim, so that thieves spread out
+                seed ^= seed << 13;
+                seed ^= seed >>> 17;
+                seed ^= seed << 5;
+                final int start = (seed & Integer.MAX_VALUE) % workers.length;
+                for (int i = 0; i < workers.length && task == null; i++) {
+                    final Worker victim = workers[(start + i) % workers.length];
+                    if (victim != this) {
+                        task = victim.deque.steal();
+                    }
+                }
+            }
+            return task;
+        }
+
+        private void perform(FutureTask task) {
+            current = task;
+            Exception failure = null;
+            try {
+                task.perform();
+            } catch (TaskFailureException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            try {
+                if (failure == null) {
+                    done(task);
+                } else {
+                    fail(task, failure);
+                }
+            } catch (TaskContextException e) {
+                throw new IllegalStateException("Worker " + index + " lost track of its task", e);
+            }
+        }
+
+    }
+
+}
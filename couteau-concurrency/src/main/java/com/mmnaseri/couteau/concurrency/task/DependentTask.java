@@ -0,0 +1,48 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.concurrency.task;
+
+import java.util.Collection;
+
+/**
+ * This interface extends the {@link Task} interface to allow the task to declare the tasks it
+ * depends upon. A task manager that understands dependencies will hold the task back until all
+ * of its dependencies have been performed, without having to check on it repeatedly.
+ *
+ * <p>Dependencies are only tracked while they are scheduled with the same task manager, so they
+ * should be scheduled before the tasks depending on them. A dependency that is not scheduled with
+ * the task manager at the time its dependent is scheduled is regarded as already done; tasks that
+ * need to guard against this should also implement {@link FutureTask}.</p>
+ *
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 8:40 PM)
+ */
+public interface DependentTask extends Task {
+
+    /**
+     * @return the tasks that must be performed before this task can be performed
+     */
+    Collection<? extends Task> getDependencies();
+
+}
@@ -24,8 +24,26 @@
 package com.mmnaseri.couteau.concurrency.task;
 
 /**
+ * This interface marks a task as carrying a priority. Task managers that honor priorities will pick
+ * tasks with a higher priority ahead of those with a lower one, while tasks with the same priority
+ * are performed in the order in which they were scheduled.
+ *
+ * <p>Tasks that are not prioritized are treated as having the {@link #DEFAULT_PRIORITY default priority}.
+ * Priorities can be negative, to push a task behind ordinary ones.</p>
+ *
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (14/6/23 AD, 17:51)
  */
 public interface Prioritized {
+
+    /**
+     * The priority of tasks that do not specify one
+     */
+    int DEFAULT_PRIORITY = 0;
+
+    /**
+     * @return the priority of this task. Higher values mean the task should be picked up sooner.
+     */
+    int getPriority();
+
 }
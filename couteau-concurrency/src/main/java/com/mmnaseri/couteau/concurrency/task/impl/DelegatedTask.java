@@ -25,6 +25,7 @@ package com.mmnaseri.couteau.concurrency.task.impl;
 
 import com.mmnaseri.couteau.concurrency.error.TaskFailureException;
 import com.mmnaseri.couteau.concurrency.task.FutureTask;
+import com.mmnaseri.couteau.concurrency.task.Prioritized;
 import com.mmnaseri.couteau.concurrency.task.RetryingTask;
 import com.mmnaseri.couteau.concurrency.task.Task;
 
@@ -35,7 +36,7 @@ import com.mmnaseri.couteau.concurrency.task.Task;
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/8/15, 5:55)
  */
-public class DelegatedTask implements FutureTask, RetryingTask {
+public class DelegatedTask implements FutureTask, RetryingTask, Prioritized {
 
     private final Task task;
 
@@ -47,6 +48,13 @@ public class DelegatedTask implements FutureTask, RetryingTask {
         this.task = task;
     }
 
+    /**
+     * @return the wrapped task
+     */
+    public Task getTask() {
+        return task;
+    }
+
     /**
      * @return if the wrapped task is not an instance of {@link FutureTask} this
      * method will return {@code false}, otherwise it delegates the decision to the
@@ -78,4 +86,13 @@ public class DelegatedTask implements FutureTask, RetryingTask {
         return task instanceof RetryingTask && ((RetryingTask) task).shouldRetry(failure);
     }
 
+    /**
+     * @return the priority of the wrapped task if it is {@link Prioritized}, and the
+     * {@link Prioritized#DEFAULT_PRIORITY default priority} otherwise.
+     */
+    @Override
+    public int getPriority() {
+        return task instanceof Prioritized ? ((Prioritized) task).getPriority() : DEFAULT_PRIORITY;
+    }
+
 }
@@ -31,10 +31,18 @@ import com.mmnaseri.couteau.concurrency.task.Task;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * This class extends the {@link Thread} class to allow for easy assignment of tasks. The TaskWorker will take a task from
  * the owning task manager and will try to carry it out successfully.
  *
+ * <p>Tasks are handed off to the worker through {@link #assign(Task)}, which wakes the worker up immediately. Since
+ * the handoff is guarded by a condition rather than a bare notification, a task assigned before the worker has gone
+ * back to waiting is never lost.</p>
+ *
  * @see #assign(Task)
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (2013/8/15, 5:58)
@@ -43,6 +51,16 @@ public class TaskWorker extends Thread {
 
     private static final Log LOG = LogFactory.getLog(TaskWorker.class);
 
+    /**
+     * Guards the handoff of tasks to this worker
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Signalled when a task has been assigned or the worker has been dismissed
+     */
+    private final Condition assigned = lock.newCondition();
+
     /**
      * The task assigned to the worker, or {@code null} if no task has been assigned to the worker, yet
      */
@@ -70,20 +88,26 @@ public class TaskWorker extends Thread {
     }
 
     /**
-     * Assigns a new task to the worker thread
+     * Assigns a new task to the worker thread and wakes it up to perform it
      * @param task    the task to be carried out
      */
     public void assign(Task task) {
         LOG.info("New task received.");
-        if (this.task != null) {
-            try {
-                LOG.error("Worker already busy with another task");
-                taskManager.fail(this.task, new TaskCompletionFailedException("The worker was assigned a new task before it could finish its previous task"));
-            } catch (TaskContextException e) {
-                throw new IllegalStateException();
+        lock.lock();
+        try {
+            if (this.task != null) {
+                try {
+                    LOG.error("Worker already busy with another task");
+                    taskManager.fail(this.task, new TaskCompletionFailedException("The worker was assigned a new task before it could finish its previous task"));
+                } catch (TaskContextException e) {
+                    throw new IllegalStateException();
+                }
             }
+            this.task = task;
+            assigned.signal();
+        } finally {
+            lock.unlock();
         }
-        this.task = task;
     }
 
     /**
@@ -91,77 +115,77 @@ public class TaskWorker extends Thread {
      */
     public void dismiss() {
         LOG.info("Worker dismissed externally.");
-        dismissed = true;
+        lock.lock();
+        try {
+            dismissed = true;
+            assigned.signal();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void run() {
         LOG.info("Starting up the worker thread");
-        while (!dismissed) {
-            //the worker waits until it is notified of some sort of
-            //change in the atmosphere
+        while (true) {
+            //the worker waits until it is either handed a task or dismissed
+            final Task current;
+            lock.lock();
             try {
-                synchronized (this) {
-                    wait();
-                }
-            } catch (InterruptedException e) {
-                if (task != null) {
-                    //if it is interrupted while waiting, and if it has been assigned
-                    //a task, the task manager must be notified of this failure
+                while (task == null && !dismissed) {
                     try {
-                        LOG.error("Task worker was interrupted while being assigned a task. Notifying the task manager.");
-                        taskManager.fail(task, e);
-                    } catch (TaskContextException contextException) {
-                        //context exceptions are not tolerated at this level
-                        break;
+                        assigned.await();
+                    } catch (InterruptedException e) {
+                        LOG.warn("Task worker was interrupted while waiting for a task.");
                     }
-                    continue;
                 }
+                if (task == null) {
+                    LOG.info("Task worker dismissed while waiting for a task.");
+                    break;
+                }
+                current = task;
+            } finally {
+                lock.unlock();
             }
-            if (dismissed) {
-                LOG.info("Task worker dismissed while waiting for a task.");
-                //if the worker was dismissed while it was in waiting,
-                //it must quit.
-                continue;
-            }
-            if (task == null) {
-                LOG.warn("Task worker woke up, only to find nothing waiting.");
-                //if the worker was somehow notified of a change, but no
-                //task was assigned to it, nor was it dismissed, then we
-                //are in unknown situation, in which we will return to waiting
-                //for either a task or a clear dismissal to arrive
-                continue;
-            }
+            TaskFailureException failure = null;
             try {
                 //we try to perform the task
                 LOG.info("Performing assigned task");
                 final long time = System.currentTimeMillis();
-                task.perform();
+                current.perform();
                 LOG.info("Finished performing the task in " + (System.currentTimeMillis() - time) + " milliseconds");
             } catch (TaskFailureException e) {
-                //if it failed to complete, we notify the task manager
-                try {
-                    LOG.error("Task execution failed. Notifying the task manager");
-                    LOG.debug(e);
-                    taskManager.fail(task, e);
-                } catch (TaskContextException contextException) {
-                    //context exceptions are not tolerated at this level
-                    break;
-                }
-                task = null;
-                continue;
+                failure = e;
             }
-            //if the task completed successfully, we tell the task manager as such
+            //we relieve the worker of the task before reporting back, since the task manager
+            //is free to assign a new task as soon as it learns of the outcome
+            release();
             try {
-                LOG.info("Notifying the task manager of successful task execution");
-                //context exceptions are not tolerated at this level
-                taskManager.done(task);
+                if (failure == null) {
+                    LOG.info("Notifying the task manager of successful task execution");
+                    taskManager.done(current);
+                } else {
+                    LOG.error("Task execution failed. Notifying the task manager");
+                    LOG.debug(failure);
+                    taskManager.fail(current, failure);
+                }
             } catch (TaskContextException contextException) {
+                //context exceptions are not tolerated at this level
                 break;
             }
-            LOG.trace("Going back to sleep and waiting for a new task to be assigned by the task manager.");
-            //we nullify the task to relieve the worker of the burden
+            LOG.trace("Going back to waiting for a new task to be assigned by the task manager.");
+        }
+    }
+
+    /**
+     * Relieves the worker of its current task
+     */
+    private void release() {
+        lock.lock();
+        try {
             task = null;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.concurrency.manager.impl;
+
+import com.mmnaseri.couteau.concurrency.error.TaskFailureException;
+import com.mmnaseri.couteau.concurrency.task.PrioritizedTask;
+import com.mmnaseri.couteau.concurrency.task.Task;
+import com.mmnaseri.couteau.concurrency.task.impl.DelegatedTask;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 7:05 PM)
+ */
+public class ReadyQueueTest {
+
+    private static DelegatedTask task(final int priority) {
+        return new DelegatedTask(new PrioritizedTask() {
+            @Override
+            public int getPriority() {
+                return priority;
+            }
+
+            @Override
+            public void perform() throws TaskFailureException {
+            }
+        });
+    }
+
+    @Test
+    public void testHigherPrioritiesGoFirstAndTiesAreFirstComeFirstServed() throws Exception {
+        final ReadyQueue queue = new ReadyQueue();
+        final DelegatedTask plain = new DelegatedTask(new Task() {
+            @Override
+            public void perform() throws TaskFailureException {
+            }
+        });
+        final DelegatedTask low = task(-1);
+        final DelegatedTask first = task(5);
+        final DelegatedTask second = task(5);
+        final DelegatedTask highest = task(9);
+        queue.add(plain);
+        queue.add(low);
+        queue.add(first);
+        queue.add(second);
+        queue.add(highest);
+        Assert.assertEquals(queue.size(), 5);
+        Assert.assertSame(queue.poll(), highest);
+        Assert.assertSame(queue.poll(), first);
+        Assert.assertSame(queue.poll(), second);
+        Assert.assertSame(queue.poll(), plain);
+        Assert.assertSame(queue.poll(), low);
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testWaitingTasksAgeAheadOfNewerImportantOnes() throws Exception {
+        final ReadyQueue queue = new ReadyQueue();
+        queue.setAgingInterval(10, TimeUnit.MILLISECONDS);
+        final DelegatedTask old = task(0);
+        queue.add(old);
+        Thread.sleep(50);
+        final DelegatedTask important = task(2);
+        final DelegatedTask urgent = task(100);
+        queue.add(important);
+        queue.add(urgent);
+        Assert.assertSame(queue.poll(), urgent);
+        Assert.assertSame(queue.poll(), old);
+        Assert.assertSame(queue.poll(), important);
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.concurrency.manager.impl;
+
+import com.mmnaseri.couteau.concurrency.deferred.impl.DefaultDeferred;
+import com.mmnaseri.couteau.concurrency.error.TaskFailureException;
+import com.mmnaseri.couteau.concurrency.task.DependentTask;
+import com.mmnaseri.couteau.concurrency.task.FutureTask;
+import com.mmnaseri.couteau.concurrency.task.RetryingTask;
+import com.mmnaseri.couteau.concurrency.task.Task;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 6:10 PM)
+ */
+public class ThreadPoolTaskManagerTest {
+
+    private static class Step implements DependentTask {
+
+        private final String name;
+        private final List<String> performed;
+        private final boolean failing;
+        private final List<Step> dependencies;
+
+        private Step(String name, List<String> performed, boolean failing, Step... dependencies) {
+            this.name = name;
+            this.performed = performed;
+            this.failing = failing;
+            this.dependencies = Arrays.asList(dependencies);
+        }
+
+        @Override
+        public Collection<Step> getDependencies() {
+            return dependencies;
+        }
+
+        @Override
+        public void perform() throws TaskFailureException {
+            if (failing) {
+                throw new TaskFailureException(name);
+            }
+            performed.add(name);
+        }
+
+    }
+
+    @Test(timeOut = 20000)
+    public void testTasksArePickedUpWithoutPolling() throws Exception {
+        final ThreadPoolTaskManager taskManager = new ThreadPoolTaskManager(2);
+        final Thread thread = new Thread(taskManager);
+        thread.start();
+        final long start = System.currentTimeMillis();
+        //each task is scheduled only after the previous one is done, so a polling dispatcher
+        //would spend at least one polling interval on every single one of them
+        for (int i = 0; i < 100; i++) {
+            final CountDownLatch latch = new CountDownLatch(1);
+            taskManager.schedule(new Task() {
+                @Override
+                public void perform() throws TaskFailureException {
+                    latch.countDown();
+                }
+            });
+            Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        taskManager.shutdown();
+        thread.join();
+        Assert.assertEquals(taskManager.getStatus().getDone(), 100);
+        Assert.assertEquals(taskManager.getStatus().getRemaining(), 0);
+    }
+
+    @Test(timeOut = 20000)
+    public void testAutoShutdownWithRetriesAndFutureTasks() throws Exception {
+        final ThreadPoolTaskManager taskManager = new ThreadPoolTaskManager(3, true);
+        final List<String> performed = Collections.synchronizedList(new ArrayList<String>());
+        final AtomicInteger attempts = new AtomicInteger(0);
+        final CountDownLatch prerequisite = new CountDownLatch(1);
+        taskManager.schedule(new FutureTask() {
+            @Override
+            public boolean isReady() {
+                return prerequisite.getCount() == 0;
+            }
+
+            @Override
+            public void perform() throws TaskFailureException {
+                performed.add("dependent");
+            }
+        });
+        taskManager.schedule(new RetryingTask() {
+            @Override
+            public boolean shouldRetry(Exception failure) {
+                return attempts.get() < 3;
+            }
+
+            @Override
+            public void perform() throws TaskFailureException {
+                if (attempts.incrementAndGet() < 3) {
+                    throw new TaskFailureException("attempt " + attempts.get());
+                }
+                performed.add("retried");
+            }
+        });
+        taskManager.schedule(new Task() {
+            @Override
+            public void perform() throws TaskFailureException {
+                performed.add("prerequisite");
+                prerequisite.countDown();
+            }
+        });
+        final Thread thread = new Thread(taskManager);
+        thread.start();
+        thread.join();
+        Assert.assertEquals(attempts.get(), 3);
+        Assert.assertEquals(performed.size(), 3);
+        Assert.assertTrue(performed.indexOf("prerequisite") < performed.indexOf("dependent"));
+        Assert.assertEquals(taskManager.getStatus().getTasks(), 5);
+        Assert.assertEquals(taskManager.getStatus().getRemaining(), 0);
+    }
+
+    @Test(timeOut = 20000)
+    public void testElasticPoolGrowsWithBacklogAndShrinksWhenIdle() throws Exception {
+        final ThreadPoolTaskManager taskManager = new ThreadPoolTaskManager("elastic", 1, 4, 100, TimeUnit.MILLISECONDS, false);
+        Assert.assertEquals(taskManager.getPoolSize(), 1);
+        final Thread thread = new Thread(taskManager);
+        thread.start();
+        final CountDownLatch started = new CountDownLatch(6);
+        final CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 6; i++) {
+            taskManager.schedule(new Task() {
+                @Override
+                public void perform() throws TaskFailureException {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new TaskFailureException("interrupted", e);
+                    }
+                }
+            });
+        }
+        //the pool can only grow as far as its maximum, so only four tasks get under way
+        while (started.getCount() > 2) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        Assert.assertEquals(started.getCount(), 2);
+        Assert.assertEquals(taskManager.getPoolSize(), 4);
+        release.countDown();
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        while (taskManager.getPoolSize() > 1) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(taskManager.getStatus().getRemaining(), 0);
+        Assert.assertEquals(taskManager.getPoolSize(), 1);
+        taskManager.shutdown();
+        thread.join();
+        //dismissed workers are joined along with the rest once the task manager is done
+        for (Thread worker : Thread.getAllStackTraces().keySet()) {
+            Assert.assertFalse(worker.getName().startsWith("elastic.worker."), worker.getName() + " is still alive");
+        }
+    }
+
+    @Test(timeOut = 20000)
+    public void testDependentTasksWaitForTheirDependencies() throws Exception {
+        final ThreadPoolTaskManager taskManager = new ThreadPoolTaskManager(4, true);
+        final List<String> performed = Collections.synchronizedList(new ArrayList<String>());
+        final Step root = new Step("root", performed, false);
+        final Step left = new Step("left", performed, false, root);
+        final Step right = new Step("right", performed, false, root);
+        final Step join = new Step("join", performed, false, left, right);
+        final Step broken = new Step("broken", performed, true, root);
+        final Step orphan = new Step("orphan", performed, false, broken, join);
+        final Step grandOrphan = new Step("grandOrphan", performed, false, orphan);
+        for (Step step : Arrays.asList(root, left, right, join, broken, orphan, grandOrphan)) {
+            taskManager.schedule(step);
+        }
+        final Thread thread = new Thread(taskManager);
+        thread.start();
+        thread.join();
+        Assert.assertEquals(performed.size(), 4);
+        Assert.assertEquals(performed.get(0), "root");
+        Assert.assertEquals(performed.get(3), "join");
+        Assert.assertFalse(performed.contains("orphan"));
+        Assert.assertFalse(performed.contains("grandOrphan"));
+        Assert.assertEquals(taskManager.getStatus().getTasks(), 7);
+        Assert.assertEquals(taskManager.getStatus().getRemaining(), 0);
+    }
+
+    @Test(timeOut = 20000)
+    public void testTasksCanWaitForPromises() throws Exception {
+        final ThreadPoolTaskManager taskManager = new ThreadPoolTaskManager(2);
+        final Thread thread = new Thread(taskManager);
+        thread.start();
+        final DefaultDeferred<String> first = new DefaultDeferred<String>();
+        final DefaultDeferred<String> second = new DefaultDeferred<String>();
+        final DefaultDeferred<String> rejected = new DefaultDeferred<String>();
+        final CountDownLatch performed = new CountDownLatch(1);
+        final AtomicInteger cancelled = new AtomicInteger(0);
+        taskManager.scheduleAfter(new Task() {
+            @Override
+            public void perform() throws TaskFailureException {
+                performed.countDown();
+            }
+        }, first.getPromise(), second.getPromise());
+        taskManager.scheduleAfter(new Task() {
+            @Override
+            public void perform() throws TaskFailureException {
+                cancelled.incrementAndGet();
+            }
+        }, first.getPromise(), rejected.getPromise());
+        first.resolve("first");
+        Thread.sleep(50);
+        Assert.assertEquals(performed.getCount(), 1);
+        rejected.reject(new IllegalStateException());
+        second.resolve("second");
+        Assert.assertTrue(performed.await(5, TimeUnit.SECONDS));
+        taskManager.shutdown();
+        thread.join();
+        Assert.assertEquals(cancelled.get(), 0);
+        Assert.assertEquals(taskManager.getStatus().getRemaining(), 0);
+    }
+
+    @Test(timeOut = 20000)
+    public void testPromisesResolvedWhileSchedulingAreNotMissed() throws Exception {
+        final ThreadPoolTaskManager taskManager = new ThreadPoolTaskManager(2);
+        final Thread thread = new Thread(taskManager);
+        thread.start();
+        final int count = 2000;
+        final List<DefaultDeferred<String>> deferreds = new ArrayList<DefaultDeferred<String>>();
+        for (int i = 0; i < count; i++) {
+            deferreds.add(new DefaultDeferred<String>());
+        }
+        final CountDownLatch performed = new CountDownLatch(count);
+        final Thread resolver = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (DefaultDeferred<String> deferred : deferreds) {
+                    deferred.resolve("done");
+                }
+            }
+        });
+        resolver.start();
+        for (DefaultDeferred<String> deferred : deferreds) {
+            taskManager.scheduleAfter(new Task() {
+                @Override
+                public void perform() throws TaskFailureException {
+                    performed.countDown();
+                }
+            }, deferred.getPromise());
+        }
+        resolver.join();
+        Assert.assertTrue(performed.await(10, TimeUnit.SECONDS));
+        taskManager.shutdown();
+        thread.join();
+        Assert.assertEquals(taskManager.getStatus().getRemaining(), 0);
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2013 Milad Naseri.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.mmnaseri.couteau.concurrency.manager.impl;
+
+import com.mmnaseri.couteau.basics.api.Processor;
+import com.mmnaseri.couteau.concurrency.deferred.Promise;
+import com.mmnaseri.couteau.concurrency.error.TaskContextException;
+import com.mmnaseri.couteau.concurrency.error.TaskFailureException;
+import com.mmnaseri.couteau.concurrency.task.DeferredCallable;
+import com.mmnaseri.couteau.concurrency.task.FutureTask;
+import com.mmnaseri.couteau.concurrency.task.RetryingTask;
+import com.mmnaseri.couteau.concurrency.task.Task;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Milad Naseri (mmnaseri@programmer.net)
+ * @since 1.0 (10/18/26, 7:55 PM)
+ */
+public class WorkStealingTaskManagerTest {
+
+    private static class Split implements Task {
+
+        private final WorkStealingTaskManager taskManager;
+        private final AtomicLong sum;
+        private final int from;
+        private final int to;
+
+        private Split(WorkStealingTaskManager taskManager, AtomicLong sum, int from, int to) {
+            this.taskManager = taskManager;
+            this.sum = sum;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void perform() throws TaskFailureException {
+            if (to - from <= 16) {
+                long total = 0;
+                for (int i = from; i < to; i++) {
+                    total += i;
+                }
+                sum.addAndGet(total);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            taskManager.schedule(new Split(taskManager, sum, from, middle));
+            taskManager.schedule(new Split(taskManager, sum, middle, to));
+        }
+
+    }
+
+    @Test(timeOut = 20000)
+    public void testTasksSpawnedByTasksAreAllPerformed() throws Exception {
+        final WorkStealingTaskManager taskManager = new WorkStealingTaskManager(4, true);
+        final AtomicLong sum = new AtomicLong(0);
+        taskManager.schedule(new Split(taskManager, sum, 0, 100000));
+        final Thread thread = new Thread(taskManager);
+        thread.start();
+        thread.join();
+        Assert.assertEquals(sum.get(), 100000L * 99999L / 2);
+        Assert.assertEquals(taskManager.getStatus().getRemaining(), 0);
+        Assert.assertTrue(taskManager.getStatus().getTasks() > 8000);
+    }
+
+    @Test(timeOut = 20000)
+    public void testPromisesRetriesAndFutureTasks() throws Exception {
+        final WorkStealingTaskManager taskManager = new WorkStealingTaskManager(2);
+        final Thread thread = new Thread(taskManager);
+        thread.start();
+        final CountDownLatch resolved = new CountDownLatch(1);
+        final AtomicInteger result = new AtomicInteger(0);
+        final Promise<Integer> promise = taskManager.defer(new DeferredCallable<Integer>() {
+            @Override
+            public Integer execute() throws TaskFailureException {
+                return 42;
+            }
+        });
+        promise.then(new Processor<Integer>() {
+            @Override
+            public void process(Integer value) {
+                result.set(value);
+                resolved.countDown();
+            }
+        });
+        Assert.assertTrue(resolved.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(result.get(), 42);
+        final AtomicInteger attempts = new AtomicInteger(0);
+        final Set<Integer> depths = Collections.synchronizedSet(new HashSet<Integer>());
+        final CountDownLatch finished = new CountDownLatch(2);
+        taskManager.schedule(new RetryingTask() {
+            @Override
+            public boolean shouldRetry(Exception failure) {
+                return true;
+            }
+
+            @Override
+            public void perform() throws TaskFailureException {
+                //a retry that wrapped the task once more would be performed from deeper down the stack
+                depths.add(Thread.currentThread().getStackTrace().length);
+                if (attempts.incrementAndGet() < 3) {
+                    throw new TaskFailureException("attempt " + attempts.get());
+                }
+                finished.countDown();
+            }
+        });
+        taskManager.schedule(new FutureTask() {
+            @Override
+            public boolean isReady() {
+                return attempts.get() >= 3;
+            }
+
+            @Override
+            public void perform() throws TaskFailureException {
+                finished.countDown();
+            }
+        });
+        Assert.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(attempts.get(), 3);
+        Assert.assertEquals(depths.size(), 1);
+        taskManager.shutdown();
+        thread.join();
+    }
+
+    @Test(expectedExceptions = TaskContextException.class)
+    public void testTasksCanOnlyBeMarkedDoneByTheirWorker() throws Exception {
+        new WorkStealingTaskManager(1).done(new Task() {
+            @Override
+            public void perform() throws TaskFailureException {
+            }
+        });
+    }
+
+    @Test(timeOut = 20000)
+    public void testFutureTasksThatBecomeReadyFromOutsideAreRun() throws Exception {
+        final WorkStealingTaskManager taskManager = new WorkStealingTaskManager(1, true);
+        final AtomicInteger ran = new AtomicInteger(0);
+        final long readyAt = System.currentTimeMillis() + 200;
+        taskManager.schedule(new FutureTask() {
+            @Override
+            public boolean isReady() {
+                return System.currentTimeMillis() >= readyAt;
+            }
+
+            @Override
+            public void perform() throws TaskFailureException {
+                ran.incrementAndGet();
+            }
+        });
+        final Thread thread = new Thread(taskManager);
+        thread.start();
+        thread.join(5000);
+        Assert.assertFalse(thread.isAlive());
+        Assert.assertEquals(ran.get(), 1);
+        Assert.assertEquals(taskManager.getStatus().getRemaining(), 0);
+    }
+
+}
@@ -23,6 +23,7 @@
 
 package com.mmnaseri.couteau.context.data.impl;
 
+import com.mmnaseri.couteau.basics.collections.compact.SmallMap;
 import com.mmnaseri.couteau.context.data.DataProperty;
 import com.mmnaseri.couteau.context.data.DataRow;
 import com.mmnaseri.couteau.context.data.DataSheet;
@@ -30,7 +31,6 @@ import com.mmnaseri.couteau.context.value.ValueReader;
 import com.mmnaseri.couteau.context.value.ValueReaderContext;
 
 import java.lang.reflect.Type;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -40,7 +40,7 @@ import java.util.Map;
  */
 public class DefaultDataRow<P> implements DataRow<P> {
     
-    private final Map<P, String> values = new HashMap<P, String>();
+    private final Map<P, String> values = new SmallMap<P, String>();
     private final ValueReader valueReader;
     private final DataSheet<P> dataSheet;
 
@@ -24,7 +24,7 @@
 package com.mmnaseri.couteau.enhancer.impl;
 
 import com.mmnaseri.couteau.basics.api.Cache;
-import com.mmnaseri.couteau.basics.api.impl.SimpleCache;
+import com.mmnaseri.couteau.basics.api.impl.ReferenceCache;
 import com.mmnaseri.couteau.enhancer.api.*;
 import com.mmnaseri.couteau.enhancer.error.BeanInitializationError;
 import com.mmnaseri.couteau.reflection.beans.BeanInitializer;
@@ -44,7 +44,7 @@ public class DefaultEnhancer<E> implements Enhancer<E> {
     private Class<? extends E> superClass = null;
     private BeanInitializer initializer = new ConstructorBeanInitializer();
     private MethodInterceptor interceptor;
-    private final Cache<Enhancement, Class<? extends E>> enhancementCache = new SimpleCache<Enhancement, Class<? extends E>>();
+    private final Cache<Enhancement, Class<? extends E>> enhancementCache = new ReferenceCache<Enhancement, Class<? extends E>>(ReferenceCache.ReferenceStrength.STRONG, ReferenceCache.ReferenceStrength.SOFT);
     private Class[] interfaces;
 
     public DefaultEnhancer() {
@@ -90,10 +90,8 @@ public class DefaultEnhancer<E> implements Enhancer<E> {
     @Override
     public E create(Class[] argumentTypes, Object[] constructorArguments) {
         final Enhancement enhancement = new Enhancement(superClass, interfaces);
-        final Class<? extends E> enhancedClass;
-        if (enhancementCache.contains(enhancement)) {
-            enhancedClass = enhancementCache.read(enhancement);
-        } else {
+        Class<? extends E> enhancedClass = enhancementCache.read(enhancement);
+        if (enhancedClass == null) {
             enhancedClass = classEnhancer.enhance();
             enhancementCache.write(enhancement, enhancedClass);
         }
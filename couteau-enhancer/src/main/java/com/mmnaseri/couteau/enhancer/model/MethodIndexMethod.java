@@ -23,14 +23,13 @@
 
 package com.mmnaseri.couteau.enhancer.model;
 
+import com.mmnaseri.couteau.basics.collections.compact.Object2IntMap;
 import com.mmnaseri.couteau.enhancer.api.MethodDescriptor;
 import com.mmnaseri.couteau.enhancer.impl.ImmutableMethodDescriptor;
 import com.mmnaseri.couteau.freemarker.api.Invokable;
 import com.mmnaseri.couteau.freemarker.model.TypedMethodModel;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * This method model will associate a single, unique number to each method
@@ -40,15 +39,17 @@ import java.util.Map;
  */
 public class MethodIndexMethod extends TypedMethodModel {
 
-    private final Map<MethodDescriptor, Integer> indices = new HashMap<MethodDescriptor, Integer>();
+    private final Object2IntMap<MethodDescriptor> indices = new Object2IntMap<MethodDescriptor>();
 
     @Invokable
     public int getIndex(Method method) {
         final ImmutableMethodDescriptor descriptor = new ImmutableMethodDescriptor(method.getDeclaringClass(), method.getReturnType(), method.getName(), method.getParameterTypes(), method.getAnnotations());
-        if (!indices.containsKey(descriptor)) {
-            indices.put(descriptor, indices.size());
+        int index = indices.get(descriptor, -1);
+        if (index < 0) {
+            index = indices.size();
+            indices.put(descriptor, index);
         }
-        return indices.get(descriptor);
+        return index;
     }
 
 }
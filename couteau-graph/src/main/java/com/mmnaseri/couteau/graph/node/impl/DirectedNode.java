@@ -24,9 +24,11 @@
 package com.mmnaseri.couteau.graph.node.impl;
 
 import com.mmnaseri.couteau.basics.api.Stringifiable;
+import com.mmnaseri.couteau.basics.collections.compact.Object2DoubleMap;
+import com.mmnaseri.couteau.basics.collections.compact.SmallMap;
 import com.mmnaseri.couteau.graph.node.MutableNode;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.Set;
 
@@ -45,17 +47,17 @@ public class DirectedNode<N extends DirectedNode<N>> implements MutableNode<N> {
     /**
      * The map containing all user data associated with the node
      */
-    private final Map<String, Object> userData = new HashMap<String, Object>();
+    private final Map<String, Object> userData = new SmallMap<String, Object>();
 
     /**
      * This nodes neighbors and link weights
      */
-    private final Map<N, Double> neighbors = new HashMap<N, Double>();
+    private final Object2DoubleMap<N> neighbors = new Object2DoubleMap<N>();
 
     /**
      * The map of all attribute values
      */
-    private final Map<String, String> attributes = new HashMap<String, String>();
+    private final Map<String, String> attributes = new SmallMap<String, String>();
 
     public DirectedNode() {
         this(null);
@@ -84,9 +86,6 @@ public class DirectedNode<N extends DirectedNode<N>> implements MutableNode<N> {
      */
     @Override
     public void addNeighbor(N neighbor) {
-        if (neighbors.containsKey(neighbor)) {
-            neighbors.remove(neighbor);
-        }
         neighbors.put(neighbor, 0d);
     }
 
@@ -97,7 +96,8 @@ public class DirectedNode<N extends DirectedNode<N>> implements MutableNode<N> {
 
     @Override
     public void removeAllNeighbors() {
-        for (N node : neighbors.keySet()) {
+        //removal goes through removeNeighbor, so that subclasses can update the other side of each link
+        for (N node : new ArrayList<N>(neighbors.keySet())) {
             removeNeighbor(node);
         }
     }
@@ -111,7 +111,6 @@ public class DirectedNode<N extends DirectedNode<N>> implements MutableNode<N> {
     @Override
     public void setLinkWeight(N neighbor, double weight) {
         if (neighbors.containsKey(neighbor)) {
-            neighbors.remove(neighbor);
             neighbors.put(neighbor, weight);
         }
     }
@@ -168,7 +167,7 @@ public class DirectedNode<N extends DirectedNode<N>> implements MutableNode<N> {
      */
     @Override
     public double getLinkWeight(N neighbour) {
-        return neighbors.containsKey(neighbour) ? neighbors.get(neighbour) : 0d;
+        return neighbors.get(neighbour, 0d);
     }
 
     /**
@@ -37,6 +37,8 @@ import com.mmnaseri.couteau.http.error.HttpResponseError;
 import com.mmnaseri.couteau.http.io.HttpRequest;
 import com.mmnaseri.couteau.http.io.HttpResponse;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (14/6/15 AD, 19:48)
@@ -44,6 +46,13 @@ import com.mmnaseri.couteau.http.io.HttpResponse;
 public class MultiThreadedHttpClient extends DefaultHttpClient implements HttpClient, TaskManager {
 
     public static final String DEFAULT_NAME = "HttpClient";
+
+    /**
+     * Requests spend most of their time waiting on the network, so the client is allowed to
+     * have many more workers than there are processors while there are requests piling up.
+     */
+    private static final int WORKERS_PER_PROCESSOR = 8;
+    private static final long WORKER_KEEP_ALIVE = 60;
     private final TaskManager taskManager;
     private final LatentHttpClient httpClient;
     private final String name;
@@ -53,11 +62,11 @@ public class MultiThreadedHttpClient extends DefaultHttpClient implements HttpCl
     }
 
     public MultiThreadedHttpClient(LatentHttpClient httpClient, String name) {
-        this(new ThreadPoolTaskManager(name, Runtime.getRuntime().availableProcessors(), false), httpClient, name);
+        this(taskManager(name), httpClient, name);
     }
 
     public MultiThreadedHttpClient(LatentHttpClient httpClient) {
-        this(new ThreadPoolTaskManager(), httpClient, DEFAULT_NAME);
+        this(taskManager(ThreadPoolTaskManager.TASK_MANAGER_DEFAULT_NAME), httpClient, DEFAULT_NAME);
     }
 
     public MultiThreadedHttpClient(TaskManager taskManager) {
@@ -70,6 +79,11 @@ public class MultiThreadedHttpClient extends DefaultHttpClient implements HttpCl
         this.name = name;
     }
 
+    private static TaskManager taskManager(String name) {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolTaskManager(name, processors, processors * WORKERS_PER_PROCESSOR, WORKER_KEEP_ALIVE, TimeUnit.SECONDS, false);
+    }
+
     @Override
     public Promise<HttpResponse> send(final HttpRequest request) {
         return defer(new DeferredCallable<HttpResponse>() {
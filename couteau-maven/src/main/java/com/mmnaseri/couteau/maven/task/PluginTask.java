@@ -26,6 +26,7 @@ package com.mmnaseri.couteau.maven.task;
 import com.mmnaseri.couteau.maven.mojo.AbstractPluginExecutor;
 import com.mmnaseri.couteau.maven.mojo.PluginExecutorAware;
 import com.mmnaseri.couteau.concurrency.error.TaskFailureException;
+import com.mmnaseri.couteau.concurrency.task.DependentTask;
 import com.mmnaseri.couteau.concurrency.task.FutureTask;
 import org.apache.maven.plugin.MojoFailureException;
 
@@ -37,7 +38,7 @@ import java.util.concurrent.CopyOnWriteArraySet;
  * @author Milad Naseri (mmnaseri@programmer.net)
  * @since 1.0 (8/2/13, 10:58 AM)
  */
-public abstract class PluginTask<E extends AbstractPluginExecutor> implements FutureTask, PluginExecutorAware<E> {
+public abstract class PluginTask<E extends AbstractPluginExecutor> implements FutureTask, DependentTask, PluginExecutorAware<E> {
 
     /**
      * Holds the unique identifier to each instance
@@ -107,8 +108,9 @@ public abstract class PluginTask<E extends AbstractPluginExecutor> implements Fu
 
     /**
      * @return an unmodifiable collection of tasks representing tasks upon whose completion this
-     * task depends
+     * task depends. Dependencies are removed from this collection as they are performed.
      */
+    @Override
     public final Collection<PluginTask<E>> getDependencies() {
         return Collections.unmodifiableCollection(dependencies);
     }
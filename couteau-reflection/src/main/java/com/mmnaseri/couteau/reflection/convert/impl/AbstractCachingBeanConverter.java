@@ -24,7 +24,7 @@
 package com.mmnaseri.couteau.reflection.convert.impl;
 
 import com.mmnaseri.couteau.basics.api.Cache;
-import com.mmnaseri.couteau.basics.api.impl.SimpleCache;
+import com.mmnaseri.couteau.basics.api.impl.ReferenceCache;
 import com.mmnaseri.couteau.reflection.beans.*;
 import com.mmnaseri.couteau.reflection.beans.impl.BeanAccessorFactoryAdapter;
 import com.mmnaseri.couteau.reflection.beans.impl.ConstructorBeanInitializer;
@@ -198,7 +198,7 @@ public abstract class AbstractCachingBeanConverter implements BeanConverter {
         this.accessorFactory = accessorFactory;
         this.wrapperFactory = wrapperFactory;
         this.initializer = new ConstructorBeanInitializer();
-        this.cache = new SimpleCache<Map.Entry<Object, Class<?>>, Object>();
+        this.cache = new ReferenceCache<Map.Entry<Object, Class<?>>, Object>(ReferenceCache.ReferenceStrength.STRONG, ReferenceCache.ReferenceStrength.SOFT);
         this.conversionStrategy = conversionStrategy;
         this.beanFactory = beanFactory;
     }
@@ -219,9 +219,10 @@ public abstract class AbstractCachingBeanConverter implements BeanConverter {
             return null;
         }
         final AbstractMap.SimpleEntry<Object, Class<?>> key = new AbstractMap.SimpleEntry<Object, Class<?>>(bean, targetType);
-        if (cache.contains(key)) {
+        final Object cached = cache.read(key);
+        if (cached != null) {
             //noinspection unchecked
-            return (O) cache.read(key);
+            return (O) cached;
         }
         final BeanAccessor<I> source = accessorFactory.getBeanAccessor(bean);
         final O targetInstance;